@@ -0,0 +1,48 @@
+// Сравнение пропускной способности и объема трафика для списка блюд через gateway.
+// Запуск (gateway с профилем loadtest):
+//   k6 run -e BASE_URL=http://localhost:8080 -e RESTAURANT_ID=1 loadtest/menu-compression.js
+// В итогах: data_received{encoding:...} — байты по сети, http_reqs{encoding:...} — число запросов,
+// http_req_duration{encoding:...} — задержка. Пул соединений до сервисов смотреть в
+// /actuator/metrics/reactor.netty.connection.provider.active.connections и .pending.connections.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const RESTAURANT_ID = __ENV.RESTAURANT_ID || '1';
+const PAGE_SIZE = __ENV.PAGE_SIZE || '50';
+const VUS = parseInt(__ENV.VUS || '50');
+const DURATION_SECONDS = parseInt(__ENV.DURATION_SECONDS || '60');
+
+const encodings = {
+    identity: 'identity',
+    gzip: 'gzip',
+    br: 'br',
+};
+
+// Сценарии идут друг за другом, чтобы не мешать друг другу
+export const options = {
+    scenarios: Object.fromEntries(Object.keys(encodings).map((name, i) => [name, {
+        executor: 'constant-vus',
+        vus: VUS,
+        duration: `${DURATION_SECONDS}s`,
+        startTime: `${i * (DURATION_SECONDS + 5)}s`,
+        env: { ENCODING: encodings[name] },
+        tags: { encoding: name },
+    }])),
+    // Пороги нужны, чтобы k6 вывел метрики в разрезе тегов
+    thresholds: Object.fromEntries(Object.keys(encodings).flatMap(name => [
+        [`data_received{encoding:${name}}`, ['count>=0']],
+        [`http_reqs{encoding:${name}}`, ['count>=0']],
+        [`http_req_duration{encoding:${name}}`, ['p(95)>=0']],
+    ])),
+};
+
+export default function () {
+    const res = http.get(
+        `${BASE_URL}/api/restaurants/${RESTAURANT_ID}/dishes?page=0&size=${PAGE_SIZE}`,
+        { headers: { 'Accept-Encoding': __ENV.ENCODING } },
+    );
+    check(res, {
+        'status 200': r => r.status === 200,
+    });
+}
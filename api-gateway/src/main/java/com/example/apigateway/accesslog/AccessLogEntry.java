@@ -0,0 +1,27 @@
+package com.example.apigateway.accesslog;
+
+/**
+ * Ячейка кольцевого буфера. Объекты создаются один раз и переиспользуются.
+ */
+final class AccessLogEntry {
+    long timestamp;
+    String method;
+    String path;
+    String query;
+    String routeId;
+    int status;
+    long durationMicros;
+    String clientIp;
+    String requestId;
+    String userAgent;
+
+    void clear() {
+        method = null;
+        path = null;
+        query = null;
+        routeId = null;
+        clientIp = null;
+        requestId = null;
+        userAgent = null;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.apigateway.accesslog;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Журнал доступа и гистограммы задержек gateway (gateway.access-log).
+ */
+@ConfigurationProperties(prefix = "gateway.access-log")
+public class AccessLogProperties {
+    // Запись журнала; метрики задержек пишутся всегда
+    private boolean enabled = true;
+    // Размер кольцевого буфера (округляется вверх до степени двойки); при переполнении записи отбрасываются
+    private int bufferSize = 8192;
+    // Клиентские перцентили; гистограмма для Prometheus публикуется отдельно
+    private List<Double> percentiles = new ArrayList<>(List.of(0.5, 0.95, 0.99));
+    private boolean percentileHistogram = true;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public List<Double> getPercentiles() {
+        return percentiles;
+    }
+
+    public void setPercentiles(List<Double> percentiles) {
+        this.percentiles = percentiles;
+    }
+
+    public boolean isPercentileHistogram() {
+        return percentileHistogram;
+    }
+
+    public void setPercentileHistogram(boolean percentileHistogram) {
+        this.percentileHistogram = percentileHistogram;
+    }
+}
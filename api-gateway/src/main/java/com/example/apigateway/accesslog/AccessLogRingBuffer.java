@@ -0,0 +1,160 @@
+package com.example.apigateway.accesslog;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Асинхронный журнал доступа: потоки Netty только заполняют заранее созданные ячейки
+ * кольцевого буфера, форматирование в JSON и запись в лог выполняет отдельный поток.
+ * Если writer не успевает и буфер полон, запись отбрасывается (gateway.accesslog.dropped),
+ * а обработка запроса не замедляется.
+ */
+@Component
+public class AccessLogRingBuffer implements DisposableBean {
+    // Отдельный логгер: уровень и appender настраиваются независимо от остальных логов
+    private static final Logger accessLog = LoggerFactory.getLogger("gateway.access");
+    private static final Logger log = LoggerFactory.getLogger(AccessLogRingBuffer.class);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final AccessLogEntry[] entries;
+    // Номер последовательности, опубликованный в ячейке; -1 — ячейка пуста
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final Counter dropped;
+    private final Thread writer;
+    private final StringBuilder line = new StringBuilder(256);
+    private volatile boolean running = true;
+
+    public AccessLogRingBuffer(AccessLogProperties properties, MeterRegistry meterRegistry) {
+        int capacity = Integer.highestOneBit(Math.max(2, properties.getBufferSize() - 1)) << 1;
+        this.entries = new AccessLogEntry[capacity];
+        this.published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            entries[i] = new AccessLogEntry();
+            published.set(i, -1);
+        }
+        this.mask = capacity - 1;
+
+        this.dropped = Counter.builder("gateway.accesslog.dropped")
+                .description("Записи журнала доступа, отброшенные из-за переполнения буфера")
+                .register(meterRegistry);
+        Gauge.builder("gateway.accesslog.backlog", this, buffer -> buffer.claimed.get() - buffer.consumed.get())
+                .description("Записи журнала доступа, ожидающие записи")
+                .register(meterRegistry);
+
+        this.writer = new Thread(this::drainLoop, "access-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    public boolean isEnabled() {
+        return accessLog.isInfoEnabled();
+    }
+
+    public void publish(long timestamp, String method, String path, String query, String routeId,
+                        int status, long durationMicros, String clientIp, String requestId, String userAgent) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= entries.length) {
+                dropped.increment();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int index = (int) (sequence & mask);
+        AccessLogEntry entry = entries[index];
+        entry.timestamp = timestamp;
+        entry.method = method;
+        entry.path = path;
+        entry.query = query;
+        entry.routeId = routeId;
+        entry.status = status;
+        entry.durationMicros = durationMicros;
+        entry.clientIp = clientIp;
+        entry.requestId = requestId;
+        entry.userAgent = userAgent;
+        published.lazySet(index, sequence);
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(2));
+    }
+
+    private void drainLoop() {
+        long next = consumed.get();
+        while (running || next < claimed.get()) {
+            int index = (int) (next & mask);
+            if (published.get(index) != next) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+            AccessLogEntry entry = entries[index];
+            try {
+                accessLog.info(format(entry));
+            } catch (RuntimeException e) {
+                log.warn("Failed to write access log entry: {}", e.getMessage());
+            }
+            entry.clear();
+            next++;
+            consumed.lazySet(next);
+        }
+    }
+
+    private String format(AccessLogEntry entry) {
+        StringBuilder sb = line;
+        sb.setLength(0);
+        sb.append("{\"ts\":\"").append(Instant.ofEpochMilli(entry.timestamp)).append('"');
+        appendField(sb, "method", entry.method);
+        appendField(sb, "path", entry.path);
+        appendField(sb, "query", entry.query);
+        appendField(sb, "route", entry.routeId);
+        sb.append(",\"status\":").append(entry.status);
+        sb.append(",\"durationMs\":").append(entry.durationMicros / 1000).append('.')
+                .append((entry.durationMicros % 1000) / 100);
+        appendField(sb, "client", entry.clientIp);
+        appendField(sb, "requestId", entry.requestId);
+        appendField(sb, "userAgent", entry.userAgent);
+        return sb.append('}').toString();
+    }
+
+    private void appendField(StringBuilder sb, String name, String value) {
+        if (value == null) {
+            return;
+        }
+        sb.append(",\"").append(name).append("\":\"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.apigateway.admission;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Адаптивный лимит одновременных запросов к одному маршруту (градиентный, как Gradient2).
+ *
+ * Базовая задержка — долгая EWMA средних по окнам, текущая — среднее за последнее окно.
+ * gradient = tolerance * base / current, ограниченный [0.5, 1]: пока задержка не выросла
+ * больше чем в tolerance раз, лимит растет на sqrt(limit), иначе пропорционально снижается.
+ * Рост только при загрузке не меньше половины лимита, чтобы лимит не уходил вверх без нагрузки.
+ */
+public class AdaptiveConcurrencyLimiter {
+    private final AdmissionProperties.Limiter config;
+    private final long windowNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private volatile double limit;
+    // Состояние окна меняется под монитором: на запрос — одно сложение
+    private long windowStart = System.nanoTime();
+    private long windowSumNanos;
+    private int windowSamples;
+    private int windowMaxInFlight;
+    private double longRttNanos;
+    private long windows;
+
+    public AdaptiveConcurrencyLimiter(AdmissionProperties.Limiter config) {
+        this.config = config;
+        this.windowNanos = config.getWindowMs() * 1_000_000L;
+        this.limit = config.getInitialLimit();
+    }
+
+    /**
+     * Занимает слот, если запросов в работе меньше limit * share. Свободный слот
+     * обязательно возвращается через {@link #release}.
+     */
+    public boolean tryAcquire(double share) {
+        int allowed = Math.max(1, (int) (limit * share));
+        while (true) {
+            int current = inFlight.get();
+            if (current >= allowed) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param rttNanos задержка ответа; отрицательное значение — запрос не дал
+     *                 полезного замера (отмена, ошибка до ответа), учитывается только освобождение
+     */
+    public void release(long rttNanos) {
+        int current = inFlight.getAndDecrement();
+        if (rttNanos >= 0) {
+            onSample(rttNanos, current);
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public synchronized double getLongRttMillis() {
+        return longRttNanos / 1_000_000d;
+    }
+
+    private synchronized void onSample(long rttNanos, int inFlightAtRelease) {
+        windowSumNanos += rttNanos;
+        windowSamples++;
+        windowMaxInFlight = Math.max(windowMaxInFlight, inFlightAtRelease);
+
+        long now = System.nanoTime();
+        if (now - windowStart < windowNanos || windowSamples < config.getMinWindowSamples()) {
+            return;
+        }
+
+        double shortRtt = (double) windowSumNanos / windowSamples;
+        updateLimit(shortRtt, windowMaxInFlight);
+
+        windowStart = now;
+        windowSumNanos = 0;
+        windowSamples = 0;
+        windowMaxInFlight = 0;
+    }
+
+    private void updateLimit(double shortRtt, int maxInFlight) {
+        // Первые окна — быстрый разгон средней, далее EWMA на longWindows окон
+        windows++;
+        double alpha = 2d / (Math.min(windows, config.getLongWindows()) + 1);
+        longRttNanos = longRttNanos == 0 ? shortRtt : longRttNanos + alpha * (shortRtt - longRttNanos);
+
+        // Долгая средняя заметно выше текущей — перегрузка прошла, базовую задержку возвращаем вниз
+        if (longRttNanos / shortRtt > 2) {
+            longRttNanos *= 0.95;
+        }
+
+        double current = limit;
+        if (maxInFlight < current / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, config.getTolerance() * longRttNanos / shortRtt));
+        double target = current * gradient + Math.sqrt(current);
+        double smoothed = current * (1 - config.getSmoothing()) + target * config.getSmoothing();
+        limit = Math.max(config.getMinLimit(), Math.min(config.getMaxLimit(), smoothed));
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.apigateway.admission;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Лимитеры по маршрутам: у каждого сервиса своя задержка и своя емкость,
+ * медленный сервис не должен уменьшать лимит остальных.
+ */
+@Component
+public class AdmissionLimiters {
+    private final AdmissionProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new ConcurrentHashMap<>();
+
+    public AdmissionLimiters(AdmissionProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public AdaptiveConcurrencyLimiter forRoute(String routeId) {
+        AdaptiveConcurrencyLimiter limiter = limiters.get(routeId);
+        if (limiter != null) {
+            return limiter;
+        }
+        return limiters.computeIfAbsent(routeId, this::create);
+    }
+
+    private AdaptiveConcurrencyLimiter create(String routeId) {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(properties.getLimiter());
+        Gauge.builder("gateway.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Текущий адаптивный лимит одновременных запросов маршрута")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.admission.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Запросы маршрута в работе")
+                .tag("route", routeId)
+                .register(meterRegistry);
+        Gauge.builder("gateway.admission.rtt.baseline", limiter, AdaptiveConcurrencyLimiter::getLongRttMillis)
+                .description("Базовая задержка маршрута, по которой считается градиент")
+                .tag("route", routeId)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        return limiter;
+    }
+}
@@ -0,0 +1,197 @@
+package com.example.apigateway.admission;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Контроль допуска по приоритету (gateway.admission). Для каждого маршрута (сервиса)
+ * адаптивный лимит одновременных запросов; запрос приоритета p допускается, пока
+ * запросов в работе меньше limit * shares[p].
+ */
+@ConfigurationProperties(prefix = "gateway.admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    private Limiter limiter = new Limiter();
+    private Priority defaultPriority = Priority.NORMAL;
+    private Map<Priority, Double> shares = new EnumMap<>(Map.of(
+            Priority.CRITICAL, 1.0,
+            Priority.HIGH, 0.9,
+            Priority.NORMAL, 0.75,
+            Priority.LOW, 0.5));
+    // Правила проверяются в порядке объявления, применяется первое совпавшее
+    private Map<String, Rule> rules = new LinkedHashMap<>();
+    // Маршруты с долгоживущими соединениями (SSE): держат слот все время потока и не дают замеров задержки
+    private Set<String> exemptRoutes = new HashSet<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Limiter getLimiter() {
+        return limiter;
+    }
+
+    public void setLimiter(Limiter limiter) {
+        this.limiter = limiter;
+    }
+
+    public Priority getDefaultPriority() {
+        return defaultPriority;
+    }
+
+    public void setDefaultPriority(Priority defaultPriority) {
+        this.defaultPriority = defaultPriority;
+    }
+
+    public Map<Priority, Double> getShares() {
+        return shares;
+    }
+
+    public void setShares(Map<Priority, Double> shares) {
+        this.shares = shares;
+    }
+
+    public Map<String, Rule> getRules() {
+        return rules;
+    }
+
+    public void setRules(Map<String, Rule> rules) {
+        this.rules = rules;
+    }
+
+    public Set<String> getExemptRoutes() {
+        return exemptRoutes;
+    }
+
+    public void setExemptRoutes(Set<String> exemptRoutes) {
+        this.exemptRoutes = exemptRoutes;
+    }
+
+    public double shareOf(Priority priority) {
+        return shares.getOrDefault(priority, 1.0);
+    }
+
+    public static class Rule {
+        // Пусто — любой метод
+        private List<String> methods = new ArrayList<>();
+        private List<String> paths = new ArrayList<>();
+        private Priority priority = Priority.NORMAL;
+
+        public List<String> getMethods() {
+            return methods;
+        }
+
+        public void setMethods(List<String> methods) {
+            this.methods = methods;
+        }
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public Priority getPriority() {
+            return priority;
+        }
+
+        public void setPriority(Priority priority) {
+            this.priority = priority;
+        }
+    }
+
+    /**
+     * Параметры градиентного лимита (по мотивам Gradient2 из Netflix concurrency-limits).
+     */
+    public static class Limiter {
+        private int initialLimit = 100;
+        private int minLimit = 10;
+        private int maxLimit = 1000;
+        // Во сколько раз задержка может превысить базовую, прежде чем лимит начнет снижаться
+        private double tolerance = 1.5;
+        // Доля нового значения при сглаживании лимита
+        private double smoothing = 0.2;
+        // Окно, за которое усредняется текущая задержка
+        private long windowMs = 100;
+        private int minWindowSamples = 10;
+        // Число окон для долгосрочной (базовой) задержки
+        private int longWindows = 600;
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getTolerance() {
+            return tolerance;
+        }
+
+        public void setTolerance(double tolerance) {
+            this.tolerance = tolerance;
+        }
+
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public void setSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+        }
+
+        public long getWindowMs() {
+            return windowMs;
+        }
+
+        public void setWindowMs(long windowMs) {
+            this.windowMs = windowMs;
+        }
+
+        public int getMinWindowSamples() {
+            return minWindowSamples;
+        }
+
+        public void setMinWindowSamples(int minWindowSamples) {
+            this.minWindowSamples = minWindowSamples;
+        }
+
+        public int getLongWindows() {
+            return longWindows;
+        }
+
+        public void setLongWindows(int longWindows) {
+            this.longWindows = longWindows;
+        }
+    }
+}
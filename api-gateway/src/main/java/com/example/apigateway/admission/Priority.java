@@ -0,0 +1,11 @@
+package com.example.apigateway.admission;
+
+/**
+ * Приоритет запроса при перегрузке: чем ниже, тем раньше запрос отклоняется.
+ */
+public enum Priority {
+    CRITICAL,
+    HIGH,
+    NORMAL,
+    LOW
+}
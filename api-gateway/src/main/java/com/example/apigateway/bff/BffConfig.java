@@ -0,0 +1,17 @@
+package com.example.apigateway.bff;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.client.WebClient;
+
+@Configuration
+public class BffConfig {
+
+    // Балансировка через Eureka: http://RESTAURANT-SERVICE/..., http://ORDER-SERVICE/...
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder() {
+        return WebClient.builder();
+    }
+}
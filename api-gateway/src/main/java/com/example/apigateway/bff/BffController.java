@@ -0,0 +1,54 @@
+package com.example.apigateway.bff;
+
+import com.example.apigateway.security.JwtClaimsResolver;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Агрегирующие эндпоинты для фронтенда. Клиенты обращаются к /api/bff/..., маршрут "bff"
+ * в GatewayConfig перенаправляет сюда, поэтому глобальные фильтры gateway (лимиты) применяются.
+ */
+@RestController
+@RequestMapping("/bff")
+public class BffController {
+
+    private final RestaurantPageAggregator restaurantPageAggregator;
+    private final JwtClaimsResolver jwtClaimsResolver;
+
+    public BffController(RestaurantPageAggregator restaurantPageAggregator, JwtClaimsResolver jwtClaimsResolver) {
+        this.restaurantPageAggregator = restaurantPageAggregator;
+        this.jwtClaimsResolver = jwtClaimsResolver;
+    }
+
+    // Страница ресторана: ресторан + блюда + корзина текущего пользователя за один запрос
+    @GetMapping("/restaurants/{restaurantId}/page")
+    public Mono<ResponseEntity<Map<String, Object>>> restaurantPage(
+            @PathVariable("restaurantId") Long restaurantId,
+            @RequestParam(name = "dishPage", defaultValue = "0") int dishPage,
+            @RequestParam(name = "dishSize", defaultValue = "20") int dishSize,
+            ServerWebExchange exchange) {
+
+        // Корзина запрашивается только для пользователя из проверенного JWT
+        Long userId = jwtClaimsResolver.resolveUserId(exchange).orElse(null);
+
+        return restaurantPageAggregator.restaurantPage(restaurantId, dishPage, dishSize, userId)
+                .map(ResponseEntity::ok)
+                .onErrorResume(WebClientResponseException.class, e -> Mono.just(
+                        ResponseEntity.status(e.getStatusCode()).body(Map.of(
+                                "error", "Restaurant request failed",
+                                "status", e.getStatusCode().value()))))
+                .onErrorResume(e -> Mono.just(
+                        ResponseEntity.status(HttpStatus.BAD_GATEWAY).body(Map.of(
+                                "error", "Restaurant service unavailable"))));
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.apigateway.bff;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Собирает данные страницы ресторана одним запросом: ресторан, блюда и корзину
+ * запрашиваются параллельно. Ресторан обязателен, блюда и корзина — нет:
+ * при ошибке или таймауте такой части ответ помечается partial, а причина попадает в errors.
+ */
+@Component
+public class RestaurantPageAggregator {
+    private static final Logger log = LoggerFactory.getLogger(RestaurantPageAggregator.class);
+
+    private final WebClient webClient;
+    private final Duration restaurantTimeout;
+    private final Duration dishesTimeout;
+    private final Duration cartTimeout;
+
+    public RestaurantPageAggregator(WebClient.Builder loadBalancedWebClientBuilder,
+                                    @Value("${gateway.bff.restaurant-timeout-ms:1500}") long restaurantTimeoutMs,
+                                    @Value("${gateway.bff.dishes-timeout-ms:1500}") long dishesTimeoutMs,
+                                    @Value("${gateway.bff.cart-timeout-ms:1000}") long cartTimeoutMs) {
+        this.webClient = loadBalancedWebClientBuilder.build();
+        this.restaurantTimeout = Duration.ofMillis(restaurantTimeoutMs);
+        this.dishesTimeout = Duration.ofMillis(dishesTimeoutMs);
+        this.cartTimeout = Duration.ofMillis(cartTimeoutMs);
+    }
+
+    public Mono<Map<String, Object>> restaurantPage(Long restaurantId, int dishPage, int dishSize, Long userId) {
+        Mono<JsonNode> restaurant = get("http://RESTAURANT-SERVICE/api/restaurants/{id}", null, restaurantTimeout,
+                restaurantId);
+
+        Mono<LegResult> dishes = optionalLeg("dishes", get(
+                "http://RESTAURANT-SERVICE/api/restaurants/{id}/dishes?page={page}&size={size}",
+                null, dishesTimeout, restaurantId, dishPage, dishSize));
+
+        Mono<LegResult> cart = userId == null
+                ? Mono.just(LegResult.ok(null))
+                : optionalLeg("cart", get("http://ORDER-SERVICE/api/cart", userId, cartTimeout));
+
+        return Mono.zip(restaurant, dishes, cart)
+                .map(tuple -> {
+                    Map<String, Object> payload = new LinkedHashMap<>();
+                    Map<String, String> errors = new LinkedHashMap<>();
+
+                    payload.put("restaurant", tuple.getT1());
+                    putLeg(payload, errors, "dishes", tuple.getT2());
+                    putLeg(payload, errors, "cart", tuple.getT3());
+
+                    payload.put("partial", !errors.isEmpty());
+                    if (!errors.isEmpty()) {
+                        payload.put("errors", errors);
+                    }
+                    return payload;
+                });
+    }
+
+    private Mono<JsonNode> get(String uri, Long userId, Duration timeout, Object... uriVariables) {
+        return webClient.get()
+                .uri(uri, uriVariables)
+                .headers(headers -> {
+                    if (userId != null) {
+                        headers.set("X-User-Id", userId.toString());
+                    }
+                })
+                .retrieve()
+                .bodyToMono(JsonNode.class)
+                .timeout(timeout);
+    }
+
+    private Mono<LegResult> optionalLeg(String name, Mono<JsonNode> leg) {
+        return leg.map(LegResult::ok)
+                .defaultIfEmpty(LegResult.ok(null))
+                .onErrorResume(e -> {
+                    log.warn("BFF leg '{}' failed: {}", name, e.toString());
+                    return Mono.just(LegResult.failed(describe(e)));
+                });
+    }
+
+    private void putLeg(Map<String, Object> payload, Map<String, String> errors, String name, LegResult leg) {
+        payload.put(name, leg.body());
+        if (leg.error() != null) {
+            errors.put(name, leg.error());
+        }
+    }
+
+    private String describe(Throwable error) {
+        if (error instanceof TimeoutException) {
+            return "timeout";
+        }
+        if (error instanceof WebClientResponseException responseException) {
+            return "status " + responseException.getStatusCode().value();
+        }
+        return "unavailable";
+    }
+
+    private record LegResult(JsonNode body, String error) {
+        static LegResult ok(JsonNode body) {
+            return new LegResult(body, null);
+        }
+
+        static LegResult failed(String error) {
+            return new LegResult(null, error);
+        }
+    }
+}
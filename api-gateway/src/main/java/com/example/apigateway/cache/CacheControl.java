@@ -0,0 +1,59 @@
+package com.example.apigateway.cache;
+
+import org.springframework.http.HttpHeaders;
+
+import java.util.Locale;
+
+/**
+ * Разбор Cache-Control ответа origin'а в терминах разделяемого кэша.
+ */
+final class CacheControl {
+    private final boolean cacheable;
+    private final Long ttlSeconds;
+
+    private CacheControl(boolean cacheable, Long ttlSeconds) {
+        this.cacheable = cacheable;
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    static CacheControl parse(HttpHeaders headers) {
+        String value = headers.getCacheControl();
+        if (value == null || value.isBlank()) {
+            return new CacheControl(true, null);
+        }
+
+        boolean cacheable = true;
+        Long maxAge = null;
+        Long sharedMaxAge = null;
+        for (String directive : value.toLowerCase(Locale.ROOT).split(",")) {
+            String d = directive.trim();
+            if (d.equals("no-store") || d.equals("private")) {
+                cacheable = false;
+            } else if (d.equals("no-cache")) {
+                maxAge = 0L;
+            } else if (d.startsWith("s-maxage=")) {
+                sharedMaxAge = parseSeconds(d.substring("s-maxage=".length()));
+            } else if (d.startsWith("max-age=") && maxAge == null) {
+                maxAge = parseSeconds(d.substring("max-age=".length()));
+            }
+        }
+        // s-maxage для разделяемых кэшей важнее max-age
+        return new CacheControl(cacheable, sharedMaxAge != null ? sharedMaxAge : maxAge);
+    }
+
+    boolean isCacheable() {
+        return cacheable;
+    }
+
+    long ttlSeconds(long defaultTtlSeconds) {
+        return ttlSeconds != null ? ttlSeconds : defaultTtlSeconds;
+    }
+
+    private static Long parseSeconds(String value) {
+        try {
+            return Math.max(0, Long.parseLong(value.replace("\"", "").trim()));
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.apigateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Закэшированный ответ origin'а. expiresAt — момент, после которого нужна ревалидация.
+ */
+public record CachedResponse(HttpStatusCode status,
+                             HttpHeaders headers,
+                             byte[] body,
+                             String etag,
+                             long storedAt,
+                             long expiresAt) {
+
+    public boolean isFresh(long now) {
+        return now < expiresAt;
+    }
+
+    public CachedResponse refreshed(long now, long ttlMillis) {
+        return new CachedResponse(status, headers, body, etag, now, now + ttlMillis);
+    }
+
+    // Вес для ограничения кэша по байтам: тело плюс приблизительный размер заголовков
+    public int weight() {
+        return body.length + headers.size() * 64;
+    }
+}
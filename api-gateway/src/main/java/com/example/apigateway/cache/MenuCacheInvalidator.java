@@ -0,0 +1,43 @@
+package com.example.apigateway.cache;
+
+import com.example.apigateway.filter.ResponseCacheFilter;
+import com.example.menuevents.MenuChangeEvent;
+import com.example.menuevents.MenuChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Сбрасывает кэш ответов gateway по событиям меню из restaurant-service.
+ *
+ * Изменение блюда затрагивает сами блюда, блюда его ресторана и сводные ответы меню.
+ * Изменение ресторана (в том числе каскадное удаление блюд) — все ответы меню:
+ * название ресторана входит в ответы по блюдам.
+ */
+@Component
+public class MenuCacheInvalidator implements MenuChangeListener {
+    private static final Logger log = LoggerFactory.getLogger(MenuCacheInvalidator.class);
+
+    private final ResponseCacheFilter responseCache;
+
+    public MenuCacheInvalidator(ResponseCacheFilter responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public void onMenuChange(MenuChangeEvent event) {
+        List<String> prefixes = event.getEntity() == MenuChangeEvent.EntityType.DISH
+                ? List.of("/api/dishes", "/api/menu", "/api/restaurants/with-dishes",
+                        "/api/restaurants/" + event.getRestaurantId() + "/dishes")
+                : List.of("/api/dishes", "/api/menu", "/api/restaurants");
+        int evicted = responseCache.evictByPathPrefix(prefixes);
+        log.debug("Menu change {}: evicted {} cached responses", event, evicted);
+    }
+
+    @Override
+    public void onResync() {
+        responseCache.evictAll();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.apigateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Правила кэшируемости ответов origin'а и подготовки заголовков к хранению.
+ */
+public final class ResponseCachePolicy {
+    private static final Set<String> NOT_STORED_HEADERS = Set.of(
+            "connection", "keep-alive", "transfer-encoding", "upgrade", "proxy-authenticate",
+            "content-length", "set-cookie", "date", "age", "x-cache");
+    private static final Set<String> ALLOWED_VARY = Set.of("accept-encoding", "origin",
+            "access-control-request-method", "access-control-request-headers");
+
+    private ResponseCachePolicy() {
+    }
+
+    /**
+     * TTL для ответа или пустой Optional, если ответ кэшировать нельзя.
+     */
+    public static Optional<Long> ttlMillis(HttpStatusCode status, HttpHeaders headers,
+                                           int maxEntryBytes, long defaultTtlSeconds) {
+        if (status == null || status.value() != HttpStatus.OK.value()) {
+            return Optional.empty();
+        }
+        // Куки и сжатые под конкретного клиента тела не разделяются между пользователями
+        if (headers.containsKey(HttpHeaders.SET_COOKIE) || headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+            return Optional.empty();
+        }
+        if (!isSupportedVary(headers.getVary())) {
+            return Optional.empty();
+        }
+        if (headers.getContentLength() > maxEntryBytes) {
+            return Optional.empty();
+        }
+
+        CacheControl cacheControl = CacheControl.parse(headers);
+        if (!cacheControl.isCacheable()) {
+            return Optional.empty();
+        }
+        long ttlMillis = cacheControl.ttlSeconds(defaultTtlSeconds) * 1000;
+        // Без ETag запись с нулевым TTL невозможно ревалидировать
+        if (ttlMillis == 0 && headers.getETag() == null) {
+            return Optional.empty();
+        }
+        return Optional.of(ttlMillis);
+    }
+
+    public static long revalidatedTtlMillis(HttpHeaders notModifiedHeaders, long defaultTtlSeconds) {
+        return CacheControl.parse(notModifiedHeaders).ttlSeconds(defaultTtlSeconds) * 1000;
+    }
+
+    public static HttpHeaders storableHeaders(HttpHeaders headers) {
+        HttpHeaders stored = new HttpHeaders();
+        headers.forEach((name, values) -> {
+            String lower = name.toLowerCase(Locale.ROOT);
+            if (!NOT_STORED_HEADERS.contains(lower) && !lower.startsWith("access-control-")) {
+                stored.put(name, List.copyOf(values));
+            }
+        });
+        return HttpHeaders.readOnlyHttpHeaders(stored);
+    }
+
+    public static boolean etagMatches(List<String> ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty() || etag == null) {
+            return false;
+        }
+        String normalized = stripWeak(etag);
+        return ifNoneMatch.stream()
+                .anyMatch(candidate -> "*".equals(candidate) || stripWeak(candidate).equals(normalized));
+    }
+
+    private static boolean isSupportedVary(List<String> vary) {
+        return vary.stream()
+                .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                .allMatch(ALLOWED_VARY::contains);
+    }
+
+    private static String stripWeak(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.apigateway.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки кэша ответов gateway для публичных GET-маршрутов.
+ */
+@ConfigurationProperties(prefix = "gateway.response-cache")
+public class ResponseCacheProperties {
+    private boolean enabled = true;
+    private List<String> paths = new ArrayList<>(List.of("/api/restaurants/**", "/api/dishes/**", "/api/menu/**"));
+    // Суммарный размер тел ответов в кэше
+    private long maxBytes = 64L * 1024 * 1024;
+    // Ответы крупнее не кэшируются
+    private int maxEntryBytes = 512 * 1024;
+    // TTL, если origin не прислал max-age / s-maxage
+    private long defaultTtlSeconds = 30;
+    // Сколько ждать ответа от запроса-лидера, прежде чем идти в сервис самостоятельно
+    private long followerWaitMs = 3000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(List<String> paths) {
+        this.paths = paths;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public int getMaxEntryBytes() {
+        return maxEntryBytes;
+    }
+
+    public void setMaxEntryBytes(int maxEntryBytes) {
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public long getDefaultTtlSeconds() {
+        return defaultTtlSeconds;
+    }
+
+    public void setDefaultTtlSeconds(long defaultTtlSeconds) {
+        this.defaultTtlSeconds = defaultTtlSeconds;
+    }
+
+    public long getFollowerWaitMs() {
+        return followerWaitMs;
+    }
+
+    public void setFollowerWaitMs(long followerWaitMs) {
+        this.followerWaitMs = followerWaitMs;
+    }
+}
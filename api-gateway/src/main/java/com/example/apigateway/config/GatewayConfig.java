@@ -1,33 +1,83 @@
 package com.example.apigateway.config;
 
+import com.example.apigateway.filter.AuthenticatedUserFilter;
+import com.example.apigateway.filter.ResilienceFilters;
+import com.example.apigateway.loadbalancer.InstanceStatsFilter;
 import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.GatewayFilterSpec;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.CONNECT_TIMEOUT_ATTR;
+import static org.springframework.cloud.gateway.support.RouteMetadataUtils.RESPONSE_TIMEOUT_ATTR;
 
 @Configuration
 public class GatewayConfig {
 
     @Bean
-    public RouteLocator customRouteLocator(RouteLocatorBuilder builder) {
+    public RouteLocator customRouteLocator(RouteLocatorBuilder builder,
+                                           ResilienceFilters resilienceFilters,
+                                           RouteResilienceProperties resilienceProperties,
+                                           AuthenticatedUserFilter authenticatedUserFilter) {
         return builder.routes()
+                // Межсервисные API (/internal/**) наружу не отдаются, в том числе через маршруты
+                // discovery locator вида /user-service/internal/**: маршрут проверяется раньше остальных
+                .route("internal-blocked", r -> r.order(Ordered.HIGHEST_PRECEDENCE)
+                        .path("/internal/**", "/*/internal/**")
+                        .filters(f -> f.setStatus(HttpStatus.NOT_FOUND))
+                        .uri("no://op"))
+
                 // User Service
                 .route("user-service", r -> r.path("/api/auth/**", "/api/users/**", "/api/health/user/**")
+                        .filters(f -> resilient(f, resilienceFilters, "user-service"))
+                        .metadata(RESPONSE_TIMEOUT_ATTR, resilienceProperties.forRoute("user-service").getResponseTimeoutMs())
+                        .metadata(CONNECT_TIMEOUT_ATTR, resilienceProperties.forRoute("user-service").getConnectTimeoutMs())
                         .uri("lb://USER-SERVICE"))
 
+                // Поток статусов заказов (SSE): долгоживущий ответ, поэтому без таймаута ответа,
+                // повторов и circuit breaker'а; объявлен раньше order-service, чтобы перехватить путь
+                .route("order-events", r -> r.path("/api/orders/events")
+                        .filters(f -> f.filter(authenticatedUserFilter))
+                        .metadata(RESPONSE_TIMEOUT_ATTR, -1)
+                        .metadata(InstanceStatsFilter.STREAMING_ROUTE_ATTR, true)
+                        .metadata(CONNECT_TIMEOUT_ATTR, resilienceProperties.forRoute("order-service").getConnectTimeoutMs())
+                        .uri("lb://ORDER-SERVICE"))
+
                 // Order Service
                 .route("order-service", r -> r.path(
                                 "/api/orders/**",
                                 "/api/cart/**",
                                 "/api/health/order/**"
                         )
+                        .filters(f -> resilient(f, resilienceFilters, "order-service"))
+                        .metadata(RESPONSE_TIMEOUT_ATTR, resilienceProperties.forRoute("order-service").getResponseTimeoutMs())
+                        .metadata(CONNECT_TIMEOUT_ATTR, resilienceProperties.forRoute("order-service").getConnectTimeoutMs())
                         .uri("lb://ORDER-SERVICE"))  // <-- Должно быть ORDER-SERVICE
 
                 // Restaurant Service
                 .route("restaurant-service", r -> r.path("/api/restaurants/**", "/api/dishes/**", "/api/menu/**",
                                 "/api/health/restaurant/**")
+                        .filters(f -> resilient(f, resilienceFilters, "restaurant-service"))
+                        .metadata(RESPONSE_TIMEOUT_ATTR, resilienceProperties.forRoute("restaurant-service").getResponseTimeoutMs())
+                        .metadata(CONNECT_TIMEOUT_ATTR, resilienceProperties.forRoute("restaurant-service").getConnectTimeoutMs())
                         .uri("lb://RESTAURANT-SERVICE"))
 
+                // BFF: агрегирующие эндпоинты самого gateway (BffController).
+                // forward: подставляет путь из uri, поэтому итоговый путь задает setPath
+                .route("bff", r -> r.path("/api/bff/restaurants/{restaurantId}/page")
+                        .filters(f -> f.setPath("/bff/restaurants/{restaurantId}/page"))
+                        .uri("forward:/bff"))
+
                 .build();
     }
-}
\ No newline at end of file
+
+    // Порядок: bulkhead снаружи (отказ без учета в breaker'е), затем breaker, внутри — повторы
+    private GatewayFilterSpec resilient(GatewayFilterSpec f, ResilienceFilters resilienceFilters, String routeId) {
+        return f.filter(resilienceFilters.bulkhead(routeId), 1)
+                .filter(resilienceFilters.circuitBreaker(routeId), 2)
+                .filter(resilienceFilters.retry(routeId), 3);
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.apigateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Таймауты и повторы по маршрутам (ключ — id маршрута в GatewayConfig).
+ * Не заданные для маршрута значения берутся из defaults.
+ * Circuit breaker и bulkhead настраиваются в resilience4j.circuitbreaker / resilience4j.bulkhead
+ * с теми же именами экземпляров.
+ */
+@ConfigurationProperties(prefix = "gateway.resilience")
+public class RouteResilienceProperties {
+    private Route defaults = Route.builtInDefaults();
+    private Map<String, Route> routes = new LinkedHashMap<>();
+
+    public Route forRoute(String routeId) {
+        Route route = routes.get(routeId);
+        return route != null ? route.withFallback(defaults) : defaults;
+    }
+
+    public Route getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Route defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Route> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, Route> routes) {
+        this.routes = routes;
+    }
+
+    // null — значение не задано (для маршрута берется из defaults)
+    public static class Route {
+        private Integer connectTimeoutMs;
+        private Integer responseTimeoutMs;
+        // Повторы только для GET; 0 — без повторов
+        private Integer retries;
+        private Long firstBackoffMs;
+        private Long maxBackoffMs;
+
+        static Route builtInDefaults() {
+            Route route = new Route();
+            route.setConnectTimeoutMs(1000);
+            route.setResponseTimeoutMs(5000);
+            route.setRetries(2);
+            route.setFirstBackoffMs(50L);
+            route.setMaxBackoffMs(500L);
+            return route;
+        }
+
+        Route withFallback(Route fallback) {
+            Route merged = new Route();
+            merged.setConnectTimeoutMs(connectTimeoutMs != null ? connectTimeoutMs : fallback.getConnectTimeoutMs());
+            merged.setResponseTimeoutMs(responseTimeoutMs != null ? responseTimeoutMs : fallback.getResponseTimeoutMs());
+            merged.setRetries(retries != null ? retries : fallback.getRetries());
+            merged.setFirstBackoffMs(firstBackoffMs != null ? firstBackoffMs : fallback.getFirstBackoffMs());
+            merged.setMaxBackoffMs(maxBackoffMs != null ? maxBackoffMs : fallback.getMaxBackoffMs());
+            return merged;
+        }
+
+        public Integer getConnectTimeoutMs() {
+            return connectTimeoutMs;
+        }
+
+        public void setConnectTimeoutMs(Integer connectTimeoutMs) {
+            this.connectTimeoutMs = connectTimeoutMs;
+        }
+
+        public Integer getResponseTimeoutMs() {
+            return responseTimeoutMs;
+        }
+
+        public void setResponseTimeoutMs(Integer responseTimeoutMs) {
+            this.responseTimeoutMs = responseTimeoutMs;
+        }
+
+        public Integer getRetries() {
+            return retries;
+        }
+
+        public void setRetries(Integer retries) {
+            this.retries = retries;
+        }
+
+        public Long getFirstBackoffMs() {
+            return firstBackoffMs;
+        }
+
+        public void setFirstBackoffMs(Long firstBackoffMs) {
+            this.firstBackoffMs = firstBackoffMs;
+        }
+
+        public Long getMaxBackoffMs() {
+            return maxBackoffMs;
+        }
+
+        public void setMaxBackoffMs(Long maxBackoffMs) {
+            this.maxBackoffMs = maxBackoffMs;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.apigateway.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Пул соединений и протокол до сервисов. Размер пула, таймауты и время простоя берутся
+ * из spring.cloud.gateway.httpclient.pool.*; здесь добавлена ограниченная очередь ожидания
+ * соединения (в gateway по умолчанию она не ограничена) и h2c до сервисов.
+ */
+@Configuration
+public class UpstreamHttpClientConfig {
+
+    @Bean
+    public HttpClientFactory gatewayHttpClientFactory(HttpClientProperties properties,
+                                                      ServerProperties serverProperties,
+                                                      List<HttpClientCustomizer> customizers,
+                                                      HttpClientSslConfigurer sslConfigurer,
+                                                      @Value("${gateway.upstream.pending-acquire-max-count:1000}")
+                                                      int pendingAcquireMaxCount) {
+        return new HttpClientFactory(properties, serverProperties, sslConfigurer, customizers) {
+            @Override
+            protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+                HttpClientProperties.Pool pool = properties.getPool();
+                if (pool.getType() != HttpClientProperties.Pool.PoolType.FIXED) {
+                    return super.buildConnectionProvider(properties);
+                }
+
+                ConnectionProvider.Builder builder = ConnectionProvider.builder(pool.getName())
+                        .maxConnections(pool.getMaxConnections())
+                        .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                        .pendingAcquireTimeout(Duration.ofMillis(pool.getAcquireTimeout()))
+                        .metrics(pool.isMetrics());
+                if (pool.getMaxIdleTime() != null) {
+                    builder.maxIdleTime(pool.getMaxIdleTime());
+                }
+                if (pool.getMaxLifeTime() != null) {
+                    builder.maxLifeTime(pool.getMaxLifeTime());
+                }
+                // Фоновая очистка закрывает простаивающие соединения до того, как их оборвет сервис
+                if (pool.getEvictionInterval() != null && !pool.getEvictionInterval().isZero()) {
+                    builder.evictInBackground(pool.getEvictionInterval());
+                }
+                return builder.build();
+            }
+        };
+    }
+
+    // h2c: HTTP/1.1 Upgrade, при отказе сервиса соединение остается на HTTP/1.1
+    @Bean
+    public HttpClientCustomizer upstreamProtocolCustomizer(@Value("${gateway.upstream.h2c:false}") boolean h2c) {
+        return httpClient -> h2c ? httpClient.protocol(HttpProtocol.H2C, HttpProtocol.HTTP11) : httpClient;
+    }
+}
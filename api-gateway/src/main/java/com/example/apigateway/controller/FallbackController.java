@@ -0,0 +1,29 @@
+package com.example.apigateway.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * Ответы при открытом circuit breaker'е или исчерпанных повторах.
+ */
+@RestController
+@RequestMapping("/fallback")
+public class FallbackController {
+
+    @RequestMapping("/{service}")
+    public Mono<ResponseEntity<Map<String, Object>>> fallback(@PathVariable("service") String service) {
+        return Mono.just(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "5")
+                .body(Map.of(
+                        "error", "Service temporarily unavailable",
+                        "service", service,
+                        "timestamp", System.currentTimeMillis()
+                )));
+    }
+}
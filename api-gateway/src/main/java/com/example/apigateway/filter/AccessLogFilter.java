@@ -0,0 +1,110 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.accesslog.AccessLogProperties;
+import com.example.apigateway.accesslog.AccessLogRingBuffer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.net.InetSocketAddress;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Задержка каждого запроса через gateway: таймер gateway.requests с перцентилями
+ * по маршруту, методу и статусу и запись в журнал доступа через кольцевой буфер.
+ * Заменяет встроенный GatewayMetricsFilter (spring.cloud.gateway.metrics.enabled=false).
+ */
+@Component
+public class AccessLogFilter implements GlobalFilter, Ordered {
+    // Статус для запросов, отмененных клиентом до ответа (как у nginx)
+    private static final int CLIENT_CLOSED_REQUEST = 499;
+
+    private final AccessLogProperties properties;
+    private final AccessLogRingBuffer ringBuffer;
+    private final MeterRegistry meterRegistry;
+    private final double[] percentiles;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public AccessLogFilter(AccessLogProperties properties, AccessLogRingBuffer ringBuffer, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.ringBuffer = ringBuffer;
+        this.meterRegistry = meterRegistry;
+        this.percentiles = properties.getPercentiles().stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long startNanos = System.nanoTime();
+        long startMillis = System.currentTimeMillis();
+        return chain.filter(exchange)
+                .doFinally(signal -> record(exchange, signal, startMillis, System.nanoTime() - startNanos));
+    }
+
+    @Override
+    public int getOrder() {
+        // Самый внешний фильтр: учитываются и запросы, отклоненные лимитами
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    private void record(ServerWebExchange exchange, SignalType signal, long startMillis, long durationNanos) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        String routeId = route != null ? route.getId() : "unknown";
+        String method = request.getMethod().name();
+        int status = status(exchange, signal);
+
+        timer(routeId, method, status).record(durationNanos, TimeUnit.NANOSECONDS);
+
+        if (properties.isEnabled() && ringBuffer.isEnabled()) {
+            ringBuffer.publish(startMillis, method, request.getPath().value(), request.getURI().getRawQuery(),
+                    routeId, status, TimeUnit.NANOSECONDS.toMicros(durationNanos), clientIp(request),
+                    request.getId(), request.getHeaders().getFirst(HttpHeaders.USER_AGENT));
+        }
+    }
+
+    private int status(ServerWebExchange exchange, SignalType signal) {
+        if (signal == SignalType.CANCEL) {
+            return CLIENT_CLOSED_REQUEST;
+        }
+        HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+        if (statusCode != null) {
+            return statusCode.value();
+        }
+        return signal == SignalType.ON_ERROR ? 500 : 200;
+    }
+
+    private String clientIp(ServerHttpRequest request) {
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return remoteAddress != null && remoteAddress.getAddress() != null
+                ? remoteAddress.getAddress().getHostAddress()
+                : null;
+    }
+
+    private Timer timer(String routeId, String method, int status) {
+        return timers.computeIfAbsent(routeId + ':' + method + ':' + status, k ->
+                Timer.builder("gateway.requests")
+                        .description("Задержка запросов через gateway")
+                        .tag("route", routeId)
+                        .tag("method", method)
+                        .tag("status", Integer.toString(status))
+                        .tag("outcome", HttpStatusCode.valueOf(status).is5xxServerError() ? "SERVER_ERROR"
+                                : HttpStatusCode.valueOf(status).is4xxClientError() ? "CLIENT_ERROR" : "SUCCESS")
+                        .publishPercentiles(percentiles)
+                        .publishPercentileHistogram(properties.isPercentileHistogram())
+                        .register(meterRegistry));
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.admission.AdaptiveConcurrencyLimiter;
+import com.example.apigateway.admission.AdmissionLimiters;
+import com.example.apigateway.admission.AdmissionProperties;
+import com.example.apigateway.admission.Priority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Контроль допуска при перегрузке сервиса. Каждому запросу по правилам назначается приоритет;
+ * запрос допускается, пока запросов маршрута в работе меньше доли адаптивного лимита для
+ * этого приоритета. Когда задержка сервиса растет и лимит снижается, первыми получают
+ * быстрый 503 запросы просмотра меню, последними — оформление заказа.
+ */
+@Component
+public class AdmissionControlFilter implements GlobalFilter, Ordered {
+    private final AdmissionProperties properties;
+    private final AdmissionLimiters limiters;
+    private final MeterRegistry meterRegistry;
+    private final List<CompiledRule> rules = new ArrayList<>();
+    private final Map<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+
+    public AdmissionControlFilter(AdmissionProperties properties, AdmissionLimiters limiters,
+                                  MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.limiters = limiters;
+        this.meterRegistry = meterRegistry;
+
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        properties.getRules().forEach((name, rule) -> rules.add(new CompiledRule(
+                rule.getMethods().stream().map(String::toUpperCase).collect(Collectors.toSet()),
+                rule.getPaths().stream().map(parser::parse).toList(),
+                rule.getPriority())));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        if (!properties.isEnabled() || route == null || properties.getExemptRoutes().contains(route.getId())) {
+            return chain.filter(exchange);
+        }
+
+        String routeId = route.getId();
+        Priority priority = resolvePriority(exchange.getRequest());
+        AdaptiveConcurrencyLimiter limiter = limiters.forRoute(routeId);
+        if (!limiter.tryAcquire(properties.shareOf(priority))) {
+            rejectedCounter(routeId, priority).increment();
+            return reject(exchange, routeId);
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> limiter.release(sample(exchange, signal, System.nanoTime() - start)));
+    }
+
+    @Override
+    public int getOrder() {
+        // После RateLimitFilter: слот не занимают запросы, которые и так получат 429
+        return Ordered.HIGHEST_PRECEDENCE + 20;
+    }
+
+    private Priority resolvePriority(ServerHttpRequest request) {
+        String method = request.getMethod().name();
+        PathContainer path = request.getPath().pathWithinApplication();
+        return rules.stream()
+                .filter(rule -> rule.matches(method, path))
+                .map(CompiledRule::priority)
+                .findFirst()
+                .orElse(properties.getDefaultPriority());
+    }
+
+    // Замер задержки нужен только от ответившего сервиса: отмены и быстрые отказы искажают градиент
+    private long sample(ServerWebExchange exchange, SignalType signal, long rttNanos) {
+        if (signal != SignalType.ON_COMPLETE) {
+            return -1;
+        }
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (status != null && status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            return -1;
+        }
+        return rttNanos;
+    }
+
+    private Mono<Void> reject(ServerWebExchange exchange, String routeId) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set("Retry-After", "1");
+        byte[] body = ("{\"error\":\"Service overloaded, request shed\",\"service\":\"" + routeId + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+
+    private Counter rejectedCounter(String routeId, Priority priority) {
+        return rejectedCounters.computeIfAbsent(routeId + ':' + priority, k ->
+                Counter.builder("gateway.admission.rejected")
+                        .description("Запросы, отклоненные контролем допуска")
+                        .tag("route", routeId)
+                        .tag("priority", priority.name().toLowerCase())
+                        .register(meterRegistry));
+    }
+
+    private record CompiledRule(Set<String> methods, List<PathPattern> patterns, Priority priority) {
+        boolean matches(String method, PathContainer path) {
+            return (methods.isEmpty() || methods.contains(method))
+                    && patterns.stream().anyMatch(pattern -> pattern.matches(path));
+        }
+    }
+}
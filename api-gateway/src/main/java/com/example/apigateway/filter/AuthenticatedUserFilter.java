@@ -0,0 +1,38 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.security.JwtClaimsResolver;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Для маршрутов, где сервис доверяет X-User-Id: заголовок берется только из проверенного JWT,
+ * переданное клиентом значение отбрасывается. Без валидного токена — 401.
+ */
+@Component
+public class AuthenticatedUserFilter implements GatewayFilter {
+    private final JwtClaimsResolver jwtClaimsResolver;
+
+    public AuthenticatedUserFilter(JwtClaimsResolver jwtClaimsResolver) {
+        this.jwtClaimsResolver = jwtClaimsResolver;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        Optional<Long> userId = jwtClaimsResolver.resolveUserId(exchange);
+        if (userId.isEmpty()) {
+            exchange.getResponse().setStatusCode(HttpStatus.UNAUTHORIZED);
+            return exchange.getResponse().setComplete();
+        }
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(headers -> headers.set("X-User-Id", userId.get().toString()))
+                .build();
+        return chain.filter(exchange.mutate().request(request).build());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.ratelimit.RateLimitProperties;
+import com.example.apigateway.ratelimit.RateLimitResult;
+import com.example.apigateway.ratelimit.RedisTokenBucketRateLimiter;
+import com.example.apigateway.security.JwtClaimsResolver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Ограничение частоты запросов до маршрутизации. Ключ — userId из проверенного JWT,
+ * для анонимных запросов — IP клиента. Отклоненный запрос получает 429.
+ */
+@Component
+public class RateLimitFilter implements GlobalFilter, Ordered {
+    private static final String DEFAULT_POLICY = "default";
+
+    private final RateLimitProperties properties;
+    private final RedisTokenBucketRateLimiter rateLimiter;
+    private final JwtClaimsResolver jwtClaimsResolver;
+    private final MeterRegistry meterRegistry;
+    private final List<CompiledPolicy> policies = new ArrayList<>();
+    private final Map<String, Counter> rejectedCounters = new ConcurrentHashMap<>();
+
+    public RateLimitFilter(RateLimitProperties properties,
+                           RedisTokenBucketRateLimiter rateLimiter,
+                           JwtClaimsResolver jwtClaimsResolver,
+                           MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.rateLimiter = rateLimiter;
+        this.jwtClaimsResolver = jwtClaimsResolver;
+        this.meterRegistry = meterRegistry;
+
+        PathPatternParser parser = PathPatternParser.defaultInstance;
+        properties.getPolicies().forEach((name, policy) -> policies.add(new CompiledPolicy(
+                name, policy, policy.getPaths().stream().map(parser::parse).toList())));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!properties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        PathContainer path = exchange.getRequest().getPath().pathWithinApplication();
+        CompiledPolicy matched = policies.stream()
+                .filter(policy -> policy.matches(path))
+                .findFirst()
+                .orElse(null);
+        String policyName = matched != null ? matched.name() : DEFAULT_POLICY;
+        RateLimitProperties.Policy policy = matched != null ? matched.policy() : properties.getDefaults();
+
+        String key = resolveKey(exchange);
+
+        return rateLimiter.tryConsume(policyName, key, policy)
+                .flatMap(result -> {
+                    ServerHttpResponse response = exchange.getResponse();
+                    response.getHeaders().set("X-RateLimit-Remaining", Long.toString(result.remaining()));
+                    response.getHeaders().set("X-RateLimit-Burst-Capacity", Integer.toString(policy.getBurstCapacity()));
+
+                    if (result.allowed()) {
+                        return chain.filter(exchange);
+                    }
+
+                    rejectedCounter(policyName, result.backend()).increment();
+                    response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+                    response.getHeaders().set("Retry-After", Long.toString(retryAfterSeconds(policy)));
+                    return response.setComplete();
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        // До балансировки и проксирования, чтобы отклоненный запрос не доходил до сервисов
+        return Ordered.HIGHEST_PRECEDENCE + 10;
+    }
+
+    private String resolveKey(ServerWebExchange exchange) {
+        return jwtClaimsResolver.resolveUserId(exchange)
+                .map(userId -> "user:" + userId)
+                .orElseGet(() -> {
+                    InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+                    String ip = remoteAddress != null && remoteAddress.getAddress() != null
+                            ? remoteAddress.getAddress().getHostAddress()
+                            : "unknown";
+                    return "ip:" + ip;
+                });
+    }
+
+    private long retryAfterSeconds(RateLimitProperties.Policy policy) {
+        return Math.max(1, (long) Math.ceil(1.0 / policy.getReplenishRate()));
+    }
+
+    private Counter rejectedCounter(String policyName, RateLimitResult.Backend backend) {
+        return rejectedCounters.computeIfAbsent(policyName + ":" + backend, k ->
+                Counter.builder("gateway.ratelimit.rejected")
+                        .description("Запросы, отклоненные ограничением частоты")
+                        .tag("policy", policyName)
+                        .tag("backend", backend.name().toLowerCase())
+                        .register(meterRegistry));
+    }
+
+    private record CompiledPolicy(String name, RateLimitProperties.Policy policy, List<PathPattern> patterns) {
+        boolean matches(PathContainer path) {
+            return patterns.stream().anyMatch(pattern -> pattern.matches(path));
+        }
+    }
+}
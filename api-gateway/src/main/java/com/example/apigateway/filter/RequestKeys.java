@@ -0,0 +1,35 @@
+package com.example.apigateway.filter;
+
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.util.MultiValueMap;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ключи запросов для кэша ответов и объединения запросов.
+ */
+final class RequestKeys {
+
+    private RequestKeys() {
+    }
+
+    // Путь + параметры, отсортированные по имени и значению: ?b=2&a=1 и ?a=1&b=2 — один ключ
+    static String pathAndSortedQuery(ServerHttpRequest request) {
+        StringBuilder key = new StringBuilder(request.getPath().value());
+        MultiValueMap<String, String> params = request.getQueryParams();
+        if (!params.isEmpty()) {
+            char separator = '?';
+            for (String name : params.keySet().stream().sorted().toList()) {
+                List<String> values = new ArrayList<>(params.get(name));
+                values.replaceAll(value -> value == null ? "" : value);
+                values.sort(null);
+                for (String value : values) {
+                    key.append(separator).append(name).append('=').append(value);
+                    separator = '&';
+                }
+            }
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.config.RouteResilienceProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.SpringCloudCircuitBreakerFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
+import reactor.util.retry.Retry;
+import reactor.util.retry.RetryBackoffSpec;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR;
+
+/**
+ * Фильтры устойчивости для маршрутов: bulkhead, circuit breaker и повторы GET с джиттером.
+ */
+@Component
+public class ResilienceFilters {
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(
+            HttpStatus.BAD_GATEWAY.value(),
+            HttpStatus.SERVICE_UNAVAILABLE.value(),
+            HttpStatus.GATEWAY_TIMEOUT.value());
+
+    private final RouteResilienceProperties properties;
+    private final BulkheadRegistry bulkheadRegistry;
+    private final SpringCloudCircuitBreakerFilterFactory circuitBreakerFilterFactory;
+
+    public ResilienceFilters(RouteResilienceProperties properties,
+                             BulkheadRegistry bulkheadRegistry,
+                             SpringCloudCircuitBreakerFilterFactory circuitBreakerFilterFactory) {
+        this.properties = properties;
+        this.bulkheadRegistry = bulkheadRegistry;
+        this.circuitBreakerFilterFactory = circuitBreakerFilterFactory;
+    }
+
+    // Ограничение одновременных запросов к сервису: медленный сервис не занимает все соединения gateway
+    public GatewayFilter bulkhead(String routeId) {
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(routeId);
+        return (exchange, chain) -> chain.filter(exchange)
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorResume(BulkheadFullException.class,
+                        e -> unavailable(exchange, routeId, "Too many concurrent requests"));
+    }
+
+    // 5xx и таймауты считаются ошибками; при открытом breaker'е — ответ из FallbackController
+    public GatewayFilter circuitBreaker(String routeId) {
+        SpringCloudCircuitBreakerFilterFactory.Config config = new SpringCloudCircuitBreakerFilterFactory.Config()
+                .setName(routeId)
+                .setFallbackUri("forward:/fallback/" + routeId)
+                .setStatusCodes(Set.of("500", "502", "503", "504"));
+        config.setRouteId(routeId);
+        return circuitBreakerFilterFactory.apply(config);
+    }
+
+    /**
+     * Повторы только для идемпотентных GET: при 502/503/504 и сетевых ошибках.
+     * Экспоненциальная задержка со случайным джиттером, чтобы повторы клиентов не синхронизировались.
+     * Если попытки исчерпаны на статусе, клиент получает последний ответ сервиса.
+     */
+    public GatewayFilter retry(String routeId) {
+        RouteResilienceProperties.Route route = properties.forRoute(routeId);
+        if (route.getRetries() <= 0) {
+            return (exchange, chain) -> chain.filter(exchange);
+        }
+        RetryBackoffSpec backoff = Retry.backoff(route.getRetries(), Duration.ofMillis(route.getFirstBackoffMs()))
+                .maxBackoff(Duration.ofMillis(route.getMaxBackoffMs()))
+                .jitter(0.5)
+                .filter(error -> error instanceof RetryableStatusException || isRetryableException(error))
+                .onRetryExhaustedThrow((spec, signal) -> signal.failure());
+
+        return (exchange, chain) -> {
+            if (!isGet(exchange)) {
+                return chain.filter(exchange);
+            }
+            return Mono.defer(() -> chain.filter(exchange).then(Mono.defer(() -> failOnRetryableStatus(exchange))))
+                    .retryWhen(backoff.doBeforeRetry(signal -> reset(exchange)))
+                    .onErrorResume(RetryableStatusException.class, e -> Mono.empty());
+        };
+    }
+
+    private Mono<Void> failOnRetryableStatus(ServerWebExchange exchange) {
+        HttpStatusCode status = exchange.getResponse().getStatusCode();
+        if (status != null && RETRYABLE_STATUSES.contains(status.value()) && !exchange.getResponse().isCommitted()) {
+            return Mono.error(new RetryableStatusException());
+        }
+        return Mono.empty();
+    }
+
+    // Перед повтором: закрыть соединение прошлого ответа и снять отметку "уже маршрутизирован"
+    private void reset(ServerWebExchange exchange) {
+        Connection connection = exchange.getAttribute(CLIENT_RESPONSE_CONN_ATTR);
+        if (connection != null) {
+            connection.dispose();
+            exchange.getAttributes().remove(CLIENT_RESPONSE_CONN_ATTR);
+        }
+        ServerWebExchangeUtils.reset(exchange);
+    }
+
+    private boolean isGet(ServerWebExchange exchange) {
+        return exchange.getRequest().getMethod() == HttpMethod.GET;
+    }
+
+    private boolean isRetryableException(Throwable error) {
+        for (Throwable current = error; current != null; current = current.getCause()) {
+            if (current instanceof IOException || current instanceof TimeoutException) {
+                return true;
+            }
+            if (current instanceof ResponseStatusException statusException
+                    && statusException.getStatusCode().value() == HttpStatus.GATEWAY_TIMEOUT.value()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Сигнал повтора по статусу ответа; стек не нужен
+    private static final class RetryableStatusException extends RuntimeException {
+        RetryableStatusException() {
+            super("Retryable upstream status", null, false, false);
+        }
+    }
+
+    private Mono<Void> unavailable(ServerWebExchange exchange, String routeId, String message) {
+        ServerHttpResponse response = exchange.getResponse();
+        if (response.isCommitted()) {
+            return Mono.empty();
+        }
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        response.getHeaders().set("Retry-After", "1");
+        byte[] body = ("{\"error\":\"" + message + "\",\"service\":\"" + routeId + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.cache.CachedResponse;
+import com.example.apigateway.cache.ResponseCacheProperties;
+import com.example.apigateway.cache.ResponseCachePolicy;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Кэш ответов для анонимных GET-запросов к публичному меню.
+ *
+ * Ключ — путь и нормализованная строка запроса. Свежая запись отдается без обращения
+ * к сервису, устаревшая с ETag ревалидируется через If-None-Match. Параллельные промахи
+ * по одному ключу ждут ответа первого запроса (лидера) вместо отдельных походов в сервис.
+ */
+@Component
+public class ResponseCacheFilter implements GlobalFilter, Ordered {
+    private static final Logger log = LoggerFactory.getLogger(ResponseCacheFilter.class);
+    private static final String CACHE_NAME = "gatewayResponse";
+    private static final String X_CACHE = "X-Cache";
+
+    private final ResponseCacheProperties properties;
+    private final List<PathPattern> patterns;
+    private final Cache<String, CachedResponse> cache;
+    private final Map<String, Sinks.One<Optional<CachedResponse>>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter revalidated;
+    private final Counter collapsed;
+    private final Counter bytesSaved;
+
+    public ResponseCacheFilter(ResponseCacheProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.patterns = properties.getPaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+
+        // Caffeine: вытеснение W-TinyLFU, ограничение по суммарному весу (байтам)
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxBytes())
+                .weigher((String key, CachedResponse value) -> value.weight())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+
+        this.hits = resultCounter(meterRegistry, "hit");
+        this.misses = resultCounter(meterRegistry, "miss");
+        this.revalidated = resultCounter(meterRegistry, "revalidated");
+        this.collapsed = resultCounter(meterRegistry, "collapsed");
+        this.bytesSaved = Counter.builder("gateway.response.cache.bytes.saved")
+                .description("Байты ответов, отданные из кэша без обращения к сервису")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!isCacheableRequest(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+
+        String key = RequestKeys.pathAndSortedQuery(exchange.getRequest());
+        long now = System.currentTimeMillis();
+        CachedResponse cached = cache.getIfPresent(key);
+        if (cached != null && cached.isFresh(now)) {
+            hits.increment();
+            return writeCached(exchange, cached, "HIT");
+        }
+
+        Sinks.One<Optional<CachedResponse>> sink = Sinks.one();
+        Sinks.One<Optional<CachedResponse>> existing = inFlight.putIfAbsent(key, sink);
+        if (existing != null) {
+            return awaitLeader(exchange, chain, existing);
+        }
+
+        misses.increment();
+        return fetchAndCache(exchange, chain, key, cached, sink)
+                .doFinally(signal -> {
+                    inFlight.remove(key, sink);
+                    // Если ответ не закэширован, ожидающие пойдут в сервис сами
+                    sink.tryEmitValue(Optional.empty());
+                });
+    }
+
+    /**
+     * Удаляет записи, ключ (путь и строка запроса) которых начинается с одного из префиксов.
+     */
+    public int evictByPathPrefix(Collection<String> prefixes) {
+        int before = cache.asMap().size();
+        cache.asMap().keySet().removeIf(key -> prefixes.stream().anyMatch(key::startsWith));
+        return before - cache.asMap().size();
+    }
+
+    public void evictAll() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public int getOrder() {
+        // Декоратор ответа должен быть установлен до NettyWriteResponseFilter;
+        // снаружи SingleFlightFilter, чтобы попадания в кэш не проходили через объединение запросов
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+    }
+
+    private Mono<Void> awaitLeader(ServerWebExchange exchange, GatewayFilterChain chain,
+                                   Sinks.One<Optional<CachedResponse>> leader) {
+        return leader.asMono()
+                .timeout(Duration.ofMillis(properties.getFollowerWaitMs()))
+                .onErrorResume(e -> Mono.just(Optional.empty()))
+                .flatMap(result -> {
+                    if (result.isPresent()) {
+                        collapsed.increment();
+                        return writeCached(exchange, result.get(), "HIT");
+                    }
+                    return chain.filter(exchange);
+                });
+    }
+
+    private Mono<Void> fetchAndCache(ServerWebExchange exchange, GatewayFilterChain chain, String key,
+                                     CachedResponse stale, Sinks.One<Optional<CachedResponse>> sink) {
+        ServerWebExchange upstreamExchange = exchange;
+        CachedResponse revalidating = stale != null && stale.etag() != null ? stale : null;
+        if (revalidating != null) {
+            // Условный запрос: при 304 повторно используем сохраненное тело
+            ServerHttpRequest request = exchange.getRequest().mutate()
+                    .headers(headers -> headers.setIfNoneMatch(revalidating.etag()))
+                    .build();
+            upstreamExchange = exchange.mutate().request(request).build();
+        }
+
+        CachingResponseDecorator decorator =
+                new CachingResponseDecorator(exchange, key, revalidating, sink);
+        return chain.filter(upstreamExchange.mutate().response(decorator).build());
+    }
+
+    private Mono<Void> writeCached(ServerWebExchange exchange, CachedResponse cached, String cacheStatus) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(cached.headers());
+        headers.set(X_CACHE, cacheStatus);
+        headers.set(HttpHeaders.AGE, Long.toString(
+                Math.max(0, (System.currentTimeMillis() - cached.storedAt()) / 1000)));
+
+        if (cached.etag() != null && ResponseCachePolicy.etagMatches(
+                exchange.getRequest().getHeaders().getIfNoneMatch(), cached.etag())) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            headers.remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(cached.status());
+        headers.setContentLength(cached.body().length);
+        bytesSaved.increment(cached.body().length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.body())));
+    }
+
+    private boolean isCacheableRequest(ServerHttpRequest request) {
+        if (!properties.isEnabled() || request.getMethod() != HttpMethod.GET) {
+            return false;
+        }
+        // Ответы для авторизованных запросов могут зависеть от пользователя
+        if (request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)
+                || request.getHeaders().containsKey("X-User-Id")) {
+            return false;
+        }
+        String cacheControl = request.getHeaders().getCacheControl();
+        if (cacheControl != null && cacheControl.contains("no-store")) {
+            return false;
+        }
+        PathContainer path = request.getPath().pathWithinApplication();
+        return patterns.stream().anyMatch(pattern -> pattern.matches(path));
+    }
+
+    private Counter resultCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.response.cache.requests")
+                .description("Запросы к кэшу ответов gateway по результату")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Перехватывает тело ответа origin'а, сохраняет его в кэш и передает клиенту.
+     * При ревалидации ответ 304 заменяется сохраненным телом.
+     */
+    private class CachingResponseDecorator extends ServerHttpResponseDecorator {
+        private final ServerWebExchange exchange;
+        private final String key;
+        private final CachedResponse revalidating;
+        private final Sinks.One<Optional<CachedResponse>> sink;
+
+        CachingResponseDecorator(ServerWebExchange exchange, String key, CachedResponse revalidating,
+                                 Sinks.One<Optional<CachedResponse>> sink) {
+            super(exchange.getResponse());
+            this.exchange = exchange;
+            this.key = key;
+            this.revalidating = revalidating;
+            this.sink = sink;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (revalidating != null && getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                return Flux.from(body)
+                        .doOnNext(DataBufferUtils::release)
+                        .then(Mono.defer(this::serveRevalidated));
+            }
+
+            long now = System.currentTimeMillis();
+            HttpHeaders headers = getDelegate().getHeaders();
+            Optional<Long> ttlMillis = ResponseCachePolicy.ttlMillis(
+                    getStatusCode(), headers, properties.getMaxEntryBytes(), properties.getDefaultTtlSeconds());
+            if (ttlMillis.isEmpty()) {
+                return super.writeWith(body);
+            }
+
+            return DataBufferUtils.join(Flux.from(body))
+                    .flatMap(joined -> {
+                        byte[] bytes = new byte[joined.readableByteCount()];
+                        joined.read(bytes);
+                        DataBufferUtils.release(joined);
+
+                        if (bytes.length <= properties.getMaxEntryBytes()) {
+                            CachedResponse entry = new CachedResponse(getStatusCode(),
+                                    ResponseCachePolicy.storableHeaders(headers), bytes,
+                                    headers.getETag(), now, now + ttlMillis.get());
+                            cache.put(key, entry);
+                            sink.tryEmitValue(Optional.of(entry));
+                            log.debug("Cached response for {} ({} bytes)", key, bytes.length);
+                        }
+
+                        getDelegate().getHeaders().set(X_CACHE, "MISS");
+                        return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                    });
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            if (revalidating != null && getStatusCode() == HttpStatus.NOT_MODIFIED) {
+                return serveRevalidated();
+            }
+            return super.setComplete();
+        }
+
+        private Mono<Void> serveRevalidated() {
+            long now = System.currentTimeMillis();
+            long ttlMillis = ResponseCachePolicy.revalidatedTtlMillis(
+                    getDelegate().getHeaders(), properties.getDefaultTtlSeconds());
+            CachedResponse refreshed = revalidating.refreshed(now, ttlMillis);
+            cache.put(key, refreshed);
+            sink.tryEmitValue(Optional.of(refreshed));
+            revalidated.increment();
+            return writeCached(exchange, refreshed, "REVALIDATED");
+        }
+    }
+}
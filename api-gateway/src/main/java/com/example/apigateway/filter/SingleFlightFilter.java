@@ -0,0 +1,226 @@
+package com.example.apigateway.filter;
+
+import com.example.apigateway.cache.ResponseCachePolicy;
+import com.example.apigateway.singleflight.SharedResponse;
+import com.example.apigateway.singleflight.SingleFlightProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Single flight для публичных GET-маршрутов: одновременные одинаковые запросы
+ * (путь, параметры, заголовки из key-headers) идут в сервис одним запросом-лидером,
+ * остальные получают копию его ответа. В отличие от кэша ответ нигде не хранится
+ * и разделяется только между запросами, пришедшими, пока лидер в работе.
+ */
+@Component
+public class SingleFlightFilter implements GlobalFilter, Ordered {
+    private static final String X_SINGLE_FLIGHT = "X-Single-Flight";
+
+    private final SingleFlightProperties properties;
+    private final List<PathPattern> patterns;
+    private final Map<String, Sinks.One<Optional<SharedResponse>>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter leaders;
+    private final Counter followers;
+    private final Counter fallthrough;
+
+    public SingleFlightFilter(SingleFlightProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.patterns = properties.getPaths().stream()
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+
+        this.leaders = resultCounter(meterRegistry, "leader");
+        this.followers = resultCounter(meterRegistry, "shared");
+        this.fallthrough = resultCounter(meterRegistry, "fallthrough");
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!isCoalescable(exchange.getRequest())) {
+            return chain.filter(exchange);
+        }
+
+        String key = requestKey(exchange.getRequest());
+        Sinks.One<Optional<SharedResponse>> sink = Sinks.one();
+        Sinks.One<Optional<SharedResponse>> existing = inFlight.putIfAbsent(key, sink);
+        if (existing != null) {
+            return awaitLeader(exchange, chain, existing);
+        }
+
+        leaders.increment();
+        SharingResponseDecorator decorator = new SharingResponseDecorator(exchange.getResponse(), key, sink);
+        return chain.filter(exchange.mutate().response(decorator).build())
+                .doFinally(signal -> {
+                    inFlight.remove(key, sink);
+                    // Ответ не разделен (ошибка, отмена, большое тело) — ожидающие пойдут в сервис сами
+                    sink.tryEmitValue(Optional.empty());
+                });
+    }
+
+    @Override
+    public int getOrder() {
+        // Внутри ResponseCacheFilter: объединяются только промахи кэша и некэшируемые ответы
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    private Mono<Void> awaitLeader(ServerWebExchange exchange, GatewayFilterChain chain,
+                                   Sinks.One<Optional<SharedResponse>> leader) {
+        return leader.asMono()
+                .timeout(Duration.ofMillis(properties.getMaxWaitMs()))
+                .onErrorResume(e -> Mono.just(Optional.empty()))
+                .flatMap(result -> {
+                    if (result.isPresent()) {
+                        followers.increment();
+                        return writeShared(exchange, result.get());
+                    }
+                    fallthrough.increment();
+                    return chain.filter(exchange);
+                });
+    }
+
+    private Mono<Void> writeShared(ServerWebExchange exchange, SharedResponse shared) {
+        ServerHttpResponse response = exchange.getResponse();
+        HttpHeaders headers = response.getHeaders();
+        headers.putAll(shared.headers());
+        headers.set(X_SINGLE_FLIGHT, "shared");
+        response.setStatusCode(shared.status());
+        headers.setContentLength(shared.body().length);
+        if (shared.body().length == 0) {
+            return response.setComplete();
+        }
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(shared.body())));
+    }
+
+    private boolean isCoalescable(ServerHttpRequest request) {
+        if (!properties.isEnabled() || request.getMethod() != HttpMethod.GET) {
+            return false;
+        }
+        // Ответ авторизованного запроса может зависеть от пользователя — такие запросы не объединяются
+        HttpHeaders headers = request.getHeaders();
+        if (headers.containsKey(HttpHeaders.AUTHORIZATION)
+                || headers.containsKey(HttpHeaders.COOKIE)
+                || headers.containsKey("X-User-Id")) {
+            return false;
+        }
+        PathContainer path = request.getPath().pathWithinApplication();
+        return patterns.stream().anyMatch(pattern -> pattern.matches(path));
+    }
+
+    private String requestKey(ServerHttpRequest request) {
+        StringBuilder key = new StringBuilder(RequestKeys.pathAndSortedQuery(request));
+        for (String header : properties.getKeyHeaders()) {
+            key.append('\n').append(header).append(':').append(request.getHeaders().getOrEmpty(header));
+        }
+        return key.toString();
+    }
+
+    private Counter resultCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.singleflight.requests")
+                .description("Запросы через объединение одинаковых GET по результату")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Передает ответ лидеру без задержки и параллельно копирует тело для ожидающих.
+     * Потоковые ответы (writeAndFlushWith, SSE) не разделяются.
+     */
+    private class SharingResponseDecorator extends ServerHttpResponseDecorator {
+        private final String key;
+        private final Sinks.One<Optional<SharedResponse>> sink;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        SharingResponseDecorator(ServerHttpResponse delegate, String key,
+                                 Sinks.One<Optional<SharedResponse>> sink) {
+            super(delegate);
+            this.key = key;
+            this.sink = sink;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            if (!isShareable()) {
+                return super.writeWith(body);
+            }
+            return super.writeWith(Flux.from(body).doOnNext(this::copy))
+                    .doOnSuccess(done -> publish());
+        }
+
+        @Override
+        public Mono<Void> setComplete() {
+            if (!isShareable()) {
+                return super.setComplete();
+            }
+            return super.setComplete().doOnSuccess(done -> publish());
+        }
+
+        private boolean isShareable() {
+            HttpHeaders headers = getDelegate().getHeaders();
+            // Куки и сжатые под конкретного клиента тела не разделяются
+            return isShareableStatus(getStatusCode())
+                    && !headers.containsKey(HttpHeaders.SET_COOKIE)
+                    && !headers.containsKey(HttpHeaders.CONTENT_ENCODING);
+        }
+
+        // Ошибка лидера (5xx, 429 и т.п.) не размножается: ожидающие идут в сервис сами
+        private boolean isShareableStatus(HttpStatusCode status) {
+            return status != null && (status.is2xxSuccessful() || status.is3xxRedirection()
+                    || status.value() == HttpStatus.NOT_FOUND.value());
+        }
+
+        private void copy(DataBuffer buffer) {
+            if (copy == null) {
+                return;
+            }
+            int length = buffer.readableByteCount();
+            if (copy.size() + length > properties.getMaxBodyBytes()) {
+                copy = null;
+                return;
+            }
+            byte[] bytes = new byte[length];
+            int position = buffer.readPosition();
+            buffer.read(bytes);
+            buffer.readPosition(position);
+            copy.write(bytes, 0, length);
+        }
+
+        private void publish() {
+            if (copy == null) {
+                return;
+            }
+            // Новые запросы после ответа начинают свой полет, а не получают уже отданный ответ
+            inFlight.remove(key, sink);
+            sink.tryEmitValue(Optional.of(new SharedResponse(getStatusCode(),
+                    ResponseCachePolicy.storableHeaders(getDelegate().getHeaders()), copy.toByteArray())));
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.example.apigateway.loadbalancer;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Статистика одного экземпляра сервиса: peak EWMA времени ответа, число запросов в работе,
+ * подряд идущие ошибки, исключение и медленный старт после возвращения.
+ * Время — System.nanoTime() в миллисекундах, передается вызывающим.
+ */
+public class InstanceStats {
+    private final String serviceId;
+    private final String address;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    // Запросы в работе: ответ балансировщика (по идентичности) -> время начала.
+    // Снимаются ровно один раз — завершением, отменой или истечением
+    private final Map<Object, Long> requests = Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private double ewmaMs;
+    private long samples;
+    private long lastSampleAt;
+    private int consecutiveFailures;
+    private long ejectedUntil;
+    private long slowStartFrom;
+    private long ejections;
+    private volatile long lastUsedAt;
+
+    InstanceStats(String serviceId, String address, long now) {
+        this.serviceId = serviceId;
+        this.address = address;
+        // Новый экземпляр (масштабирование, перезапуск) тоже получает трафик постепенно
+        this.slowStartFrom = now;
+        this.lastUsedAt = now;
+    }
+
+    void requestStarted(Object request, long now) {
+        requests.put(request, now);
+        inFlight.incrementAndGet();
+        lastUsedAt = now;
+    }
+
+    /**
+     * Снимает запрос с учета без замера; false, если он уже снят.
+     */
+    boolean release(Object request, long now) {
+        if (requests.remove(request) == null) {
+            return false;
+        }
+        inFlight.decrementAndGet();
+        lastUsedAt = now;
+        return true;
+    }
+
+    /**
+     * Запросы, о завершении которых так и не сообщили, перестают считаться в работе через expiryMs.
+     */
+    void expireRequests(long now, long expiryMs) {
+        synchronized (requests) {
+            requests.values().removeIf(startedAt -> {
+                if (now - startedAt < expiryMs) {
+                    return false;
+                }
+                inFlight.decrementAndGet();
+                return true;
+            });
+        }
+    }
+
+    synchronized void requestFinished(Object request, long now, long latencyMs, boolean failed,
+                                      LoadBalancerProperties properties) {
+        // Уже снятый запрос (отмена, поток, истечение) не дает замера
+        if (!release(request, now)) {
+            return;
+        }
+
+        // Быстрые ответы с ошибкой не должны делать экземпляр "дешевле" — их учитывает исключение
+        if (latencyMs >= 0 && !failed) {
+            if (samples == 0 || latencyMs > ewmaMs) {
+                // Пик учитывается сразу: одна долгая пауза GC заметна без ожидания усреднения
+                ewmaMs = latencyMs;
+            } else {
+                double weight = Math.exp(-(double) (now - lastSampleAt) / properties.getEwmaDecayMs());
+                ewmaMs = ewmaMs * weight + latencyMs * (1 - weight);
+            }
+            samples++;
+            lastSampleAt = now;
+        }
+
+        if (!failed) {
+            consecutiveFailures = 0;
+            return;
+        }
+        consecutiveFailures++;
+        if (consecutiveFailures >= properties.getFailureThreshold() && !isEjected(now)) {
+            ejectedUntil = now + properties.getEjectionMs();
+            ejections++;
+            consecutiveFailures = 0;
+            // Замеры до исключения не отражают состояние после возвращения
+            samples = 0;
+            slowStartFrom = ejectedUntil;
+        }
+    }
+
+    synchronized boolean isEjected(long now) {
+        return now < ejectedUntil;
+    }
+
+    /**
+     * Доля трафика во время медленного старта: линейно от slowStartMinWeight до 1.
+     */
+    synchronized double weight(long now, LoadBalancerProperties properties) {
+        long elapsed = now - slowStartFrom;
+        if (properties.getSlowStartMs() <= 0 || elapsed >= properties.getSlowStartMs()) {
+            return 1.0;
+        }
+        double minWeight = properties.getSlowStartMinWeight();
+        return minWeight + (1 - minWeight) * Math.max(0, elapsed) / properties.getSlowStartMs();
+    }
+
+    synchronized boolean hasSamples() {
+        return samples > 0;
+    }
+
+    /**
+     * Оценка задержки на момент now: без новых замеров она затухает к нулю, поэтому
+     * экземпляр, однажды ответивший медленно, со временем снова получает пробные запросы.
+     */
+    synchronized double ewmaMs(long now, LoadBalancerProperties properties) {
+        return ewmaMs * Math.exp(-(double) Math.max(0, now - lastSampleAt) / properties.getEwmaDecayMs());
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    long lastUsedAt() {
+        return lastUsedAt;
+    }
+
+    String serviceId() {
+        return serviceId;
+    }
+
+    synchronized Map<String, Object> snapshot(long now, LoadBalancerProperties properties) {
+        Map<String, Object> snapshot = new LinkedHashMap<>();
+        snapshot.put("address", address);
+        snapshot.put("ewmaMs", samples > 0 ? Math.round(ewmaMs(now, properties) * 10) / 10.0 : null);
+        snapshot.put("samples", samples);
+        snapshot.put("inFlight", inFlight.get());
+        snapshot.put("consecutiveFailures", consecutiveFailures);
+        snapshot.put("ejected", isEjected(now));
+        snapshot.put("ejectedForMs", Math.max(0, ejectedUntil - now));
+        snapshot.put("ejections", ejections);
+        snapshot.put("weight", Math.round(weight(now, properties) * 100) / 100.0);
+        return snapshot;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.apigateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Снимает с учета запросы маршрутов, до которых не доходит onComplete жизненного цикла балансировщика:
+ * отмененные (клиент закрыл соединение, таймаут circuit breaker'а) и потоковые.
+ * Поток (маршрут с метаданными {@link #STREAMING_ROUTE_ATTR}) считается в работе только до начала ответа,
+ * его длительность — не задержка экземпляра.
+ */
+@Component
+public class InstanceStatsFilter implements GlobalFilter, Ordered {
+    public static final String STREAMING_ROUTE_ATTR = "streaming";
+
+    private final InstanceStatsRegistry statsRegistry;
+
+    public InstanceStatsFilter(InstanceStatsRegistry statsRegistry) {
+        this.statsRegistry = statsRegistry;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (isStreaming(exchange)) {
+            exchange.getResponse().beforeCommit(() -> {
+                release(exchange);
+                return Mono.empty();
+            });
+        }
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        release(exchange);
+                    }
+                });
+    }
+
+    private void release(ServerWebExchange exchange) {
+        Response<ServiceInstance> lbResponse = exchange.getAttribute(GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+        if (lbResponse != null && lbResponse.hasServer()) {
+            statsRegistry.get(lbResponse.getServer()).release(lbResponse, statsRegistry.now());
+        }
+    }
+
+    private boolean isStreaming(ServerWebExchange exchange) {
+        Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+        return route != null && Boolean.TRUE.equals(route.getMetadata().get(STREAMING_ROUTE_ATTR));
+    }
+
+    // Сразу перед балансировщиком: при повторе маршрута каждая попытка видит свой ответ балансировщика
+    @Override
+    public int getOrder() {
+        return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER - 1;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.apigateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.CompletionContext;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerLifecycle;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.RequestDataContext;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.client.loadbalancer.ResponseData;
+import org.springframework.cloud.client.loadbalancer.TimedRequestContext;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Снимает задержку и результат каждого запроса через балансировщик (маршруты gateway и @LoadBalanced WebClient).
+ * Отмененные запросы сюда не доходят — их снимает {@link InstanceStatsFilter} или истечение in-flight-expiry-ms.
+ */
+@Component
+public class InstanceStatsLifecycle implements LoadBalancerLifecycle<RequestDataContext, ResponseData, ServiceInstance> {
+
+    private final InstanceStatsRegistry statsRegistry;
+    private final LoadBalancerProperties properties;
+
+    public InstanceStatsLifecycle(InstanceStatsRegistry statsRegistry, LoadBalancerProperties properties) {
+        this.statsRegistry = statsRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    public void onStart(Request<RequestDataContext> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<RequestDataContext> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) {
+            return;
+        }
+        if (request.getContext() instanceof TimedRequestContext timed) {
+            timed.setRequestStartTime(System.nanoTime());
+        }
+        statsRegistry.get(lbResponse.getServer()).requestStarted(lbResponse, statsRegistry.now());
+    }
+
+    @Override
+    public void onComplete(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()
+                || completionContext.status() == CompletionContext.Status.DISCARD) {
+            return;
+        }
+
+        long latencyMs = -1;
+        Request<RequestDataContext> request = completionContext.getLoadBalancerRequest();
+        if (request != null && request.getContext() instanceof TimedRequestContext timed
+                && timed.getRequestStartTime() > 0) {
+            latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - timed.getRequestStartTime());
+        }
+
+        statsRegistry.get(lbResponse.getServer())
+                .requestFinished(lbResponse, statsRegistry.now(), latencyMs, isFailure(completionContext), properties);
+    }
+
+    private boolean isFailure(CompletionContext<ResponseData, ServiceInstance, RequestDataContext> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.FAILED) {
+            return true;
+        }
+        ResponseData response = completionContext.getClientResponse();
+        return response != null && response.getHttpStatus() != null && response.getHttpStatus().is5xxServerError();
+    }
+}
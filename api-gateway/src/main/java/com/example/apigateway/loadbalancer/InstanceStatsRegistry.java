@@ -0,0 +1,61 @@
+package com.example.apigateway.loadbalancer;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Статистика по всем экземплярам всех сервисов; общая для балансировщика и жизненного цикла запросов.
+ */
+@Component
+public class InstanceStatsRegistry {
+
+    private final LoadBalancerProperties properties;
+    private final ConcurrentHashMap<String, InstanceStats> stats = new ConcurrentHashMap<>();
+
+    public InstanceStatsRegistry(LoadBalancerProperties properties) {
+        this.properties = properties;
+    }
+
+    public InstanceStats get(ServiceInstance instance) {
+        String key = key(instance);
+        return stats.computeIfAbsent(key, k -> new InstanceStats(instance.getServiceId(),
+                instance.getHost() + ":" + instance.getPort(), now()));
+    }
+
+    public Map<String, List<Map<String, Object>>> snapshot() {
+        long now = now();
+        Map<String, List<Map<String, Object>>> result = new TreeMap<>();
+        stats.values().forEach(s -> result.computeIfAbsent(s.serviceId(), id -> new ArrayList<>())
+                .add(s.snapshot(now, properties)));
+        return result;
+    }
+
+    // Экземпляры, пропавшие из Eureka, перестают выбираться — их статистику удаляем по простою
+    @Scheduled(fixedDelayString = "${gateway.load-balancer.stats-idle-eviction-ms:600000}")
+    public void evictIdle() {
+        long threshold = now() - properties.getStatsIdleEvictionMs();
+        stats.entrySet().removeIf(e -> e.getValue().inFlight() == 0 && e.getValue().lastUsedAt() < threshold);
+    }
+
+    @Scheduled(fixedDelayString = "${gateway.load-balancer.in-flight-expiry-check-ms:5000}")
+    public void expireInFlight() {
+        long now = now();
+        stats.values().forEach(s -> s.expireRequests(now, properties.getInFlightExpiryMs()));
+    }
+
+    long now() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    private String key(ServiceInstance instance) {
+        return instance.getServiceId() + "/" + instance.getHost() + ":" + instance.getPort();
+    }
+}
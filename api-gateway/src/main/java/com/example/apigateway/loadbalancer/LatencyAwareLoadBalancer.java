@@ -0,0 +1,114 @@
+package com.example.apigateway.loadbalancer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.SelectedInstanceCallback;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Power of two choices: из двух случайных доступных экземпляров выбирается тот,
+ * у которого меньше стоимость = EWMA задержки * (запросов в работе + 1) / вес медленного старта.
+ * Исключенные экземпляры пропускаются, пока исключены не все.
+ */
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+    private static final Logger log = LoggerFactory.getLogger(LatencyAwareLoadBalancer.class);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final InstanceStatsRegistry statsRegistry;
+    private final LoadBalancerProperties properties;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    String serviceId,
+                                    InstanceStatsRegistry statsRegistry,
+                                    LoadBalancerProperties properties) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.statsRegistry = statsRegistry;
+        this.properties = properties;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next()
+                .map(instances -> {
+                    Response<ServiceInstance> response = choose(instances);
+                    if (supplier instanceof SelectedInstanceCallback callback && response.hasServer()) {
+                        callback.selectedServiceInstance(response.getServer());
+                    }
+                    return response;
+                });
+    }
+
+    private Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("No servers available for service: {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) {
+            return new DefaultResponse(instances.get(0));
+        }
+
+        long now = statsRegistry.now();
+        List<ServiceInstance> candidates = new ArrayList<>(instances.size());
+        for (ServiceInstance instance : instances) {
+            if (!statsRegistry.get(instance).isEjected(now)) {
+                candidates.add(instance);
+            }
+        }
+        // Исключены все — лучше попробовать любой, чем отказать сразу
+        if (candidates.isEmpty()) {
+            candidates = instances;
+        }
+        if (candidates.size() == 1) {
+            return new DefaultResponse(candidates.get(0));
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+
+        ServiceInstance a = candidates.get(first);
+        ServiceInstance b = candidates.get(second);
+        double fallbackLatency = averageLatency(candidates, now);
+        return new DefaultResponse(cost(a, now, fallbackLatency) <= cost(b, now, fallbackLatency) ? a : b);
+    }
+
+    private double cost(ServiceInstance instance, long now, double fallbackLatency) {
+        InstanceStats stats = statsRegistry.get(instance);
+        double latency = stats.hasSamples() ? stats.ewmaMs(now, properties) : fallbackLatency;
+        return (latency + 1) * (stats.inFlight() + 1) / stats.weight(now, properties);
+    }
+
+    // Экземпляр без замеров оценивается по среднему остальных, чтобы не получить весь трафик сразу
+    private double averageLatency(List<ServiceInstance> instances, long now) {
+        double sum = 0;
+        int count = 0;
+        for (ServiceInstance instance : instances) {
+            InstanceStats stats = statsRegistry.get(instance);
+            if (stats.hasSamples()) {
+                sum += stats.ewmaMs(now, properties);
+                count++;
+            }
+        }
+        return count > 0 ? sum / count : properties.getInitialLatencyMs();
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.apigateway.loadbalancer;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+// Конфигурация дочернего контекста каждого клиента; без @Configuration, чтобы не попасть в component scan
+public class LatencyAwareLoadBalancerConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "gateway.load-balancer.latency-aware", havingValue = "true", matchIfMissing = true)
+    public ReactorLoadBalancer<ServiceInstance> latencyAwareLoadBalancer(Environment environment,
+                                                                         LoadBalancerClientFactory clientFactory,
+                                                                         InstanceStatsRegistry statsRegistry,
+                                                                         LoadBalancerProperties properties) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+                serviceId, statsRegistry, properties);
+    }
+}
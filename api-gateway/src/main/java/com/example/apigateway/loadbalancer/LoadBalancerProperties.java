@@ -0,0 +1,98 @@
+package com.example.apigateway.loadbalancer;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Параметры балансировки по задержке (gateway.load-balancer).
+ */
+@ConfigurationProperties(prefix = "gateway.load-balancer")
+public class LoadBalancerProperties {
+    // false — стандартный round-robin Spring Cloud LoadBalancer
+    private boolean latencyAware = true;
+    // Постоянная времени EWMA: вклад старых замеров уменьшается в e раз за этот интервал
+    private long ewmaDecayMs = 10000;
+    // Оценка задержки для экземпляра без замеров, если сравнить не с кем
+    private long initialLatencyMs = 100;
+    // Подряд идущих ошибок (5xx, обрыв соединения) до исключения экземпляра
+    private int failureThreshold = 5;
+    private long ejectionMs = 30000;
+    // Время, за которое доля трафика нового/вернувшегося экземпляра растет до полной
+    private long slowStartMs = 30000;
+    private double slowStartMinWeight = 0.1;
+    // Статистика экземпляров, к которым не было запросов дольше этого, удаляется
+    private long statsIdleEvictionMs = 600000;
+    // Запрос без сообщения о завершении дольше этого перестает считаться в работе; больше любого таймаута маршрута
+    private long inFlightExpiryMs = 60000;
+
+    public boolean isLatencyAware() {
+        return latencyAware;
+    }
+
+    public void setLatencyAware(boolean latencyAware) {
+        this.latencyAware = latencyAware;
+    }
+
+    public long getEwmaDecayMs() {
+        return ewmaDecayMs;
+    }
+
+    public void setEwmaDecayMs(long ewmaDecayMs) {
+        this.ewmaDecayMs = ewmaDecayMs;
+    }
+
+    public long getInitialLatencyMs() {
+        return initialLatencyMs;
+    }
+
+    public void setInitialLatencyMs(long initialLatencyMs) {
+        this.initialLatencyMs = initialLatencyMs;
+    }
+
+    public int getFailureThreshold() {
+        return failureThreshold;
+    }
+
+    public void setFailureThreshold(int failureThreshold) {
+        this.failureThreshold = failureThreshold;
+    }
+
+    public long getEjectionMs() {
+        return ejectionMs;
+    }
+
+    public void setEjectionMs(long ejectionMs) {
+        this.ejectionMs = ejectionMs;
+    }
+
+    public long getSlowStartMs() {
+        return slowStartMs;
+    }
+
+    public void setSlowStartMs(long slowStartMs) {
+        this.slowStartMs = slowStartMs;
+    }
+
+    public double getSlowStartMinWeight() {
+        return slowStartMinWeight;
+    }
+
+    public void setSlowStartMinWeight(double slowStartMinWeight) {
+        this.slowStartMinWeight = slowStartMinWeight;
+    }
+
+    public long getStatsIdleEvictionMs() {
+        return statsIdleEvictionMs;
+    }
+
+    public void setStatsIdleEvictionMs(long statsIdleEvictionMs) {
+        this.statsIdleEvictionMs = statsIdleEvictionMs;
+    }
+
+    public long getInFlightExpiryMs() {
+        return inFlightExpiryMs;
+    }
+
+    public void setInFlightExpiryMs(long inFlightExpiryMs) {
+        this.inFlightExpiryMs = inFlightExpiryMs;
+    }
+}
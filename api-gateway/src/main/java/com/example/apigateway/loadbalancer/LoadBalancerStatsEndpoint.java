@@ -0,0 +1,25 @@
+package com.example.apigateway.loadbalancer;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+// /actuator/lbstats — статистика экземпляров для отладки балансировки
+@Component
+@Endpoint(id = "lbstats")
+public class LoadBalancerStatsEndpoint {
+
+    private final InstanceStatsRegistry statsRegistry;
+
+    public LoadBalancerStatsEndpoint(InstanceStatsRegistry statsRegistry) {
+        this.statsRegistry = statsRegistry;
+    }
+
+    @ReadOperation
+    public Map<String, List<Map<String, Object>>> stats() {
+        return statsRegistry.snapshot();
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.apigateway.ratelimit;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Резервный token bucket в памяти экземпляра gateway. Используется, пока Redis недоступен:
+ * лимит становится поэкземплярным, но защита от флуда сохраняется.
+ */
+@Component
+public class LocalTokenBucketRateLimiter {
+    private static final long IDLE_EVICTION_MS = 10 * 60 * 1000;
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    public RateLimitResult tryConsume(String key, RateLimitProperties.Policy policy) {
+        Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(policy.getBurstCapacity()));
+        return bucket.tryConsume(policy, System.currentTimeMillis());
+    }
+
+    // Удаляем давно не используемые bucket'ы, чтобы карта не росла от уникальных IP
+    @Scheduled(fixedDelay = 60000)
+    public void evictIdle() {
+        long threshold = System.currentTimeMillis() - IDLE_EVICTION_MS;
+        buckets.values().removeIf(bucket -> bucket.lastRefill < threshold);
+    }
+
+    private static final class Bucket {
+        private double tokens;
+        private long lastRefill;
+
+        private Bucket(int capacity) {
+            this.tokens = capacity;
+            this.lastRefill = System.currentTimeMillis();
+        }
+
+        private synchronized RateLimitResult tryConsume(RateLimitProperties.Policy policy, long now) {
+            long elapsed = Math.max(0, now - lastRefill);
+            tokens = Math.min(policy.getBurstCapacity(), tokens + elapsed * policy.getReplenishRate() / 1000.0);
+            lastRefill = now;
+
+            if (tokens >= 1) {
+                tokens -= 1;
+                return new RateLimitResult(true, (long) tokens, RateLimitResult.Backend.LOCAL);
+            }
+            return new RateLimitResult(false, 0, RateLimitResult.Backend.LOCAL);
+        }
+    }
+}
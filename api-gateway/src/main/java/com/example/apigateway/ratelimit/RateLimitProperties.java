@@ -0,0 +1,85 @@
+package com.example.apigateway.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Лимиты запросов по маршрутам. Политики проверяются в порядке объявления,
+ * применяется первая, чей шаблон пути совпал; иначе — defaults.
+ */
+@ConfigurationProperties(prefix = "gateway.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    // Таймаут обращения к Redis; при превышении используется локальный bucket
+    private long redisTimeoutMs = 100;
+    private Policy defaults = new Policy();
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getRedisTimeoutMs() {
+        return redisTimeoutMs;
+    }
+
+    public void setRedisTimeoutMs(long redisTimeoutMs) {
+        this.redisTimeoutMs = redisTimeoutMs;
+    }
+
+    public Policy getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Policy defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Policy> getPolicies() {
+        return policies;
+    }
+
+    public void setPolicies(Map<String, Policy> policies) {
+        this.policies = policies;
+    }
+
+    public static class Policy {
+        private List<String> paths = new ArrayList<>();
+        // Пополнение, токенов в секунду
+        private double replenishRate = 20;
+        // Емкость bucket'а (допустимый всплеск)
+        private int burstCapacity = 40;
+
+        public List<String> getPaths() {
+            return paths;
+        }
+
+        public void setPaths(List<String> paths) {
+            this.paths = paths;
+        }
+
+        public double getReplenishRate() {
+            return replenishRate;
+        }
+
+        public void setReplenishRate(double replenishRate) {
+            this.replenishRate = replenishRate;
+        }
+
+        public int getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(int burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+    }
+}
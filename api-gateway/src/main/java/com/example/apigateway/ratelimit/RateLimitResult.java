@@ -0,0 +1,8 @@
+package com.example.apigateway.ratelimit;
+
+public record RateLimitResult(boolean allowed, long remaining, Backend backend) {
+
+    public enum Backend {
+        REDIS, LOCAL
+    }
+}
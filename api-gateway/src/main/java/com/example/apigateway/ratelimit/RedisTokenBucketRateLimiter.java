@@ -0,0 +1,72 @@
+package com.example.apigateway.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Распределенный token bucket: проверка и списание выполняются одним Lua-скриптом,
+ * поэтому атомарны для всех экземпляров gateway. При ошибке или таймауте Redis
+ * решение принимает локальный bucket.
+ */
+@Component
+public class RedisTokenBucketRateLimiter {
+    private static final Logger log = LoggerFactory.getLogger(RedisTokenBucketRateLimiter.class);
+
+    @SuppressWarnings("rawtypes")
+    private final RedisScript<List> script =
+            RedisScript.of(new ClassPathResource("scripts/token_bucket.lua"), List.class);
+
+    private final ReactiveStringRedisTemplate redisTemplate;
+    private final LocalTokenBucketRateLimiter localRateLimiter;
+    private final RateLimitProperties properties;
+    private final Counter fallbackCounter;
+
+    public RedisTokenBucketRateLimiter(ReactiveStringRedisTemplate redisTemplate,
+                                       LocalTokenBucketRateLimiter localRateLimiter,
+                                       RateLimitProperties properties,
+                                       MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.localRateLimiter = localRateLimiter;
+        this.properties = properties;
+        this.fallbackCounter = Counter.builder("gateway.ratelimit.fallback")
+                .description("Решения, принятые локальным bucket'ом из-за недоступности Redis")
+                .register(meterRegistry);
+    }
+
+    public Mono<RateLimitResult> tryConsume(String policyName, String key, RateLimitProperties.Policy policy) {
+        // Hash tag {...} держит ключ одного клиента на одном слоте Redis Cluster
+        String redisKey = "rate_limit:{" + policyName + ":" + key + "}";
+        List<String> args = List.of(
+                Double.toString(policy.getReplenishRate()),
+                Integer.toString(policy.getBurstCapacity()),
+                "1");
+
+        return redisTemplate.execute(script, List.of(redisKey), args)
+                .next()
+                .timeout(Duration.ofMillis(properties.getRedisTimeoutMs()))
+                .map(result -> new RateLimitResult(
+                        toLong(result.get(0)) == 1L,
+                        toLong(result.get(1)),
+                        RateLimitResult.Backend.REDIS))
+                .switchIfEmpty(Mono.fromSupplier(() -> localRateLimiter.tryConsume(policyName + ":" + key, policy)))
+                .onErrorResume(e -> {
+                    log.debug("Redis rate limiter unavailable, using local bucket: {}", e.toString());
+                    fallbackCounter.increment();
+                    return Mono.just(localRateLimiter.tryConsume(policyName + ":" + key, policy));
+                });
+    }
+
+    private long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(String.valueOf(value));
+    }
+}
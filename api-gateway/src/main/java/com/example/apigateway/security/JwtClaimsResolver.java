@@ -0,0 +1,59 @@
+package com.example.apigateway.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import java.security.Key;
+import java.util.Optional;
+
+/**
+ * Проверяет подпись JWT тем же ключом, что и user-service, и кэширует claims
+ * в атрибутах запроса, чтобы разные фильтры не разбирали токен повторно.
+ */
+@Component
+public class JwtClaimsResolver {
+    private static final String CLAIMS_ATTRIBUTE = JwtClaimsResolver.class.getName() + ".claims";
+
+    private final Key signingKey;
+
+    public JwtClaimsResolver(@Value("${jwt.secret}") String jwtSecret) {
+        this.signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+    }
+
+    @SuppressWarnings("unchecked")
+    public Optional<Claims> resolve(ServerWebExchange exchange) {
+        Object cached = exchange.getAttributes().get(CLAIMS_ATTRIBUTE);
+        if (cached != null) {
+            return (Optional<Claims>) cached;
+        }
+        Optional<Claims> claims = parse(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+        exchange.getAttributes().put(CLAIMS_ATTRIBUTE, claims);
+        return claims;
+    }
+
+    public Optional<Long> resolveUserId(ServerWebExchange exchange) {
+        return resolve(exchange).map(claims -> claims.get("userId", Long.class));
+    }
+
+    private Optional<Claims> parse(String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(Jwts.parserBuilder()
+                    .setSigningKey(signingKey)
+                    .build()
+                    .parseClaimsJws(authHeader.substring(7))
+                    .getBody());
+        } catch (Exception e) {
+            // Невалидный или просроченный токен — считаем запрос анонимным
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.apigateway.singleflight;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * Ответ запроса-лидера, который получают объединенные с ним запросы.
+ */
+public record SharedResponse(HttpStatusCode status, HttpHeaders headers, byte[] body) {
+}
@@ -0,0 +1,62 @@
+package com.example.apigateway.singleflight;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Объединение одинаковых одновременных GET-запросов (gateway.single-flight).
+ * Только для публичных маршрутов: ответ лидера получают все ожидающие.
+ */
+@ConfigurationProperties(prefix = "gateway.single-flight")
+public class SingleFlightProperties {
+    private boolean enabled = true;
+    private List<String> paths = new ArrayList<>(List.of("/api/restaurants/**", "/api/dishes/**", "/api/menu/**"));
+    // Заголовки, от которых зависит ответ: входят в ключ вместе с путем и параметрами
+    private List<String> keyHeaders = new ArrayList<>(List.of("Accept", "Accept-Language"));
+    // Сколько ждать ответа лидера, прежде чем идти в сервис самостоятельно
+    private long maxWaitMs = 2000;
+    // Ответы крупнее не разделяются: ожидающие повторяют запрос сами
+    private int maxBodyBytes = 1024 * 1024;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(List<String> paths) {
+        this.paths = paths;
+    }
+
+    public List<String> getKeyHeaders() {
+        return keyHeaders;
+    }
+
+    public void setKeyHeaders(List<String> keyHeaders) {
+        this.keyHeaders = keyHeaders;
+    }
+
+    public long getMaxWaitMs() {
+        return maxWaitMs;
+    }
+
+    public void setMaxWaitMs(long maxWaitMs) {
+        this.maxWaitMs = maxWaitMs;
+    }
+
+    public int getMaxBodyBytes() {
+        return maxBodyBytes;
+    }
+
+    public void setMaxBodyBytes(int maxBodyBytes) {
+        this.maxBodyBytes = maxBodyBytes;
+    }
+}
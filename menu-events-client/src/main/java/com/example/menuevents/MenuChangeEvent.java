@@ -0,0 +1,106 @@
+package com.example.menuevents;
+
+import java.time.Instant;
+
+/**
+ * Событие изменения меню: что изменилось, без данных — подписчик сбрасывает свой кэш
+ * и при необходимости перечитывает сущность из restaurant-service.
+ *
+ * version — версия сущности (optimistic lock) после изменения; событие с версией
+ * не новее уже полученной — повтор или опоздавшее.
+ */
+public class MenuChangeEvent {
+    public static final String EXCHANGE = "menu.exchange";
+
+    private EntityType entity;
+    private Long id;
+    private Long restaurantId;
+    private Long version;
+    private ChangeType changeType;
+    private Instant occurredAt;
+
+    public enum EntityType {
+        DISH("dish.changed"),
+        RESTAURANT("restaurant.changed");
+
+        private final String routingKey;
+
+        EntityType(String routingKey) {
+            this.routingKey = routingKey;
+        }
+
+        public String getRoutingKey() {
+            return routingKey;
+        }
+    }
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED, RESTORED
+    }
+
+    public MenuChangeEvent() {
+    }
+
+    public MenuChangeEvent(EntityType entity, Long id, Long restaurantId, Long version,
+                           ChangeType changeType, Instant occurredAt) {
+        this.entity = entity;
+        this.id = id;
+        this.restaurantId = restaurantId;
+        this.version = version;
+        this.changeType = changeType;
+        this.occurredAt = occurredAt;
+    }
+
+    public EntityType getEntity() {
+        return entity;
+    }
+
+    public void setEntity(EntityType entity) {
+        this.entity = entity;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public void setRestaurantId(Long restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public ChangeType getChangeType() {
+        return changeType;
+    }
+
+    public void setChangeType(ChangeType changeType) {
+        this.changeType = changeType;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(Instant occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+
+    @Override
+    public String toString() {
+        return entity + "#" + id + " v" + version + " " + changeType + " (restaurant " + restaurantId + ")";
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.menuevents;
+
+/**
+ * Подписчик изменений меню. Бины этого типа автоматически получают события,
+ * если включен menu-events.subscriber.enabled.
+ */
+public interface MenuChangeListener {
+
+    void onMenuChange(MenuChangeEvent event);
+
+    /**
+     * События могли быть пропущены (переподключение к брокеру, очередь экземпляра
+     * пересоздана) — кэш нужно сбросить целиком.
+     */
+    default void onResync() {
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.menuevents;
+
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.AsyncConsumerStartedEvent;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.amqp.RabbitAutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Подписка на события меню: menu-events.subscriber.enabled=true и хотя бы один бин
+ * {@link MenuChangeListener}. Каждый экземпляр получает все события через свою
+ * очередь, привязанную к {@link MenuChangeEvent#EXCHANGE}.
+ */
+@AutoConfiguration(after = RabbitAutoConfiguration.class)
+@ConditionalOnBean(ConnectionFactory.class)
+@ConditionalOnProperty(prefix = "menu-events.subscriber", name = "enabled", havingValue = "true")
+public class MenuEventsAutoConfiguration {
+
+    @Bean
+    public AnonymousQueue menuEventsQueue(@Value("${spring.application.name:app}") String applicationName) {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("menu.changes." + applicationName + "."));
+    }
+
+    @Bean
+    public Declarables menuEventsBindings(AnonymousQueue menuEventsQueue) {
+        TopicExchange exchange = new TopicExchange(MenuChangeEvent.EXCHANGE);
+        return new Declarables(exchange,
+                BindingBuilder.bind(menuEventsQueue).to(exchange).with(MenuChangeEvent.EntityType.DISH.getRoutingKey()),
+                BindingBuilder.bind(menuEventsQueue).to(exchange).with(MenuChangeEvent.EntityType.RESTAURANT.getRoutingKey()));
+    }
+
+    @Bean
+    public MenuEventsSubscriber menuEventsSubscriber(ObjectProvider<MenuChangeListener> listeners) {
+        return new MenuEventsSubscriber(listeners.orderedStream().toList());
+    }
+
+    // Один consumer: события обрабатываются в порядке публикации
+    @Bean
+    public SimpleMessageListenerContainer menuEventsListenerContainer(ConnectionFactory connectionFactory,
+                                                                      AnonymousQueue menuEventsQueue,
+                                                                      MenuEventsSubscriber menuEventsSubscriber) {
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(connectionFactory);
+        container.setQueues(menuEventsQueue);
+        container.setMessageListener(menuEventsSubscriber);
+        container.setPrefetchCount(50);
+        container.setMissingQueuesFatal(false);
+        return container;
+    }
+
+    // Ресинхронизация после (пере)запуска consumer'а, а не при новом соединении:
+    // к этому моменту контейнер заново объявил и привязал очередь экземпляра
+    @Bean
+    public ApplicationListener<AsyncConsumerStartedEvent> menuEventsResync(SimpleMessageListenerContainer menuEventsListenerContainer,
+                                                                           MenuEventsSubscriber menuEventsSubscriber) {
+        return event -> {
+            if (event.getSource() == menuEventsListenerContainer) {
+                menuEventsSubscriber.resync();
+            }
+        };
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.menuevents;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageListener;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Получает события меню из очереди экземпляра и передает их {@link MenuChangeListener}'ам.
+ *
+ * Очередь экземпляра удаляется вместе с consumer'ом, поэтому каждый раз, когда контейнер
+ * заново начинает читать (после объявления и привязки очереди), подписчики получают onResync:
+ * события за время разрыва потеряны.
+ * Повторы и опоздавшие события (версия не новее уже полученной) отбрасываются.
+ */
+public class MenuEventsSubscriber implements MessageListener {
+    private static final Logger log = LoggerFactory.getLogger(MenuEventsSubscriber.class);
+
+    private final List<MenuChangeListener> listeners;
+    private final ObjectMapper objectMapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+    private final Map<String, Long> lastVersions = new ConcurrentHashMap<>();
+
+    public MenuEventsSubscriber(List<MenuChangeListener> listeners) {
+        this.listeners = List.copyOf(listeners);
+    }
+
+    @Override
+    public void onMessage(Message message) {
+        MenuChangeEvent event;
+        try {
+            event = objectMapper.readValue(message.getBody(), MenuChangeEvent.class);
+        } catch (IOException e) {
+            log.warn("Skipping unreadable menu event: {}", e.getMessage());
+            return;
+        }
+        if (!isNewer(event)) {
+            log.debug("Skipping stale menu event {}", event);
+            return;
+        }
+        for (MenuChangeListener listener : listeners) {
+            try {
+                listener.onMenuChange(event);
+            } catch (RuntimeException e) {
+                log.error("Menu change listener {} failed on {}", listener.getClass().getSimpleName(), event, e);
+            }
+        }
+    }
+
+    // Вызывается, когда consumer контейнера запущен: очередь уже объявлена и привязана
+    public void resync() {
+        lastVersions.clear();
+        for (MenuChangeListener listener : listeners) {
+            try {
+                listener.onResync();
+            } catch (RuntimeException e) {
+                log.error("Menu change listener {} failed to resync", listener.getClass().getSimpleName(), e);
+            }
+        }
+        log.info("Menu events consumer (re)started, {} listeners resynced", listeners.size());
+    }
+
+    private boolean isNewer(MenuChangeEvent event) {
+        if (event.getEntity() == null || event.getId() == null || event.getVersion() == null) {
+            return true;
+        }
+        long version = event.getVersion();
+        boolean[] newer = {false};
+        lastVersions.compute(event.getEntity() + ":" + event.getId(), (key, previous) -> {
+            if (previous == null || version > previous) {
+                newer[0] = true;
+                return version;
+            }
+            return previous;
+        });
+        return newer[0];
+    }
+}
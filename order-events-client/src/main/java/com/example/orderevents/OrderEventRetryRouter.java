@@ -0,0 +1,99 @@
+package com.example.orderevents;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Повтор необработанного события через очереди задержки order-service:
+ * {@code <queue>.retry.<delay>ms} с TTL, после которого брокер возвращает сообщение
+ * в основную очередь. Уровень задержки растет с каждой попыткой.
+ *
+ * Копия публикуется через RabbitTemplate с подтверждениями издателя (correlated или simple)
+ * и считается отправленной только после ack брокера: переполненная очередь задержки
+ * (reject-publish) отвечает nack. Исходное сообщение вызывающий подтверждает только при
+ * {@link Decision#RETRIED}; при {@link Decision#PARK} — отклоняет без возврата в очередь,
+ * и через dead-letter exchange оно попадает в {@code <queue>.parking}.
+ */
+public class OrderEventRetryRouter {
+    public static final String RETRY_COUNT_HEADER = "x-retry-count";
+    private static final Logger log = LoggerFactory.getLogger(OrderEventRetryRouter.class);
+
+    public enum Decision {
+        RETRIED, PARK
+    }
+
+    private final RabbitTemplate rabbitTemplate;
+    private final List<Long> retryDelaysMs;
+    private final long confirmTimeoutMs;
+
+    public OrderEventRetryRouter(RabbitTemplate rabbitTemplate, List<Long> retryDelaysMs, long confirmTimeoutMs) {
+        ConnectionFactory connectionFactory = rabbitTemplate.getConnectionFactory();
+        if (!connectionFactory.isPublisherConfirms() && !connectionFactory.isSimplePublisherConfirms()) {
+            throw new IllegalStateException("OrderEventRetryRouter needs publisher confirms (publisher-confirm-type)");
+        }
+        this.rabbitTemplate = rabbitTemplate;
+        this.retryDelaysMs = List.copyOf(retryDelaysMs);
+        this.confirmTimeoutMs = confirmTimeoutMs;
+    }
+
+    public static String retryQueue(String queue, long delayMs) {
+        return queue + ".retry." + delayMs + "ms";
+    }
+
+    public Decision retryOrPark(Message message, String queue, Exception failure) {
+        MessageProperties properties = message.getMessageProperties();
+        int attempt = retryCount(properties);
+        if (attempt >= retryDelaysMs.size()) {
+            log.error("Parking message from {} after {} retries: {}", queue, attempt, failure.getMessage());
+            return Decision.PARK;
+        }
+        long delayMs = retryDelaysMs.get(attempt);
+        properties.setHeader(RETRY_COUNT_HEADER, attempt + 1);
+        if (!publish(retryQueue(queue, delayMs), message)) {
+            log.error("Parking message from {}: retry queue {} did not confirm the copy ({})",
+                    queue, retryQueue(queue, delayMs), failure.getMessage());
+            return Decision.PARK;
+        }
+        log.warn("Retrying message from {} in {} ms (attempt {}): {}", queue, delayMs, attempt + 1, failure.getMessage());
+        return Decision.RETRIED;
+    }
+
+    private boolean publish(String retryQueue, Message message) {
+        try {
+            if (rabbitTemplate.getConnectionFactory().isPublisherConfirms()) {
+                CorrelationData correlation = new CorrelationData();
+                rabbitTemplate.send("", retryQueue, message, correlation);
+                CorrelationData.Confirm confirm = correlation.getFuture().get(confirmTimeoutMs, TimeUnit.MILLISECONDS);
+                return confirm.isAck() && correlation.getReturned() == null;
+            }
+            rabbitTemplate.invoke(operations -> {
+                operations.send("", retryQueue, message);
+                operations.waitForConfirmsOrDie(confirmTimeoutMs);
+                return null;
+            });
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (AmqpException | ExecutionException | TimeoutException e) {
+            log.warn("Retry copy to {} not confirmed: {}", retryQueue, e.getMessage());
+            return false;
+        }
+    }
+
+    private int retryCount(MessageProperties properties) {
+        Object value = properties.getHeader(RETRY_COUNT_HEADER);
+        return value instanceof Number number ? number.intValue() : 0;
+    }
+}
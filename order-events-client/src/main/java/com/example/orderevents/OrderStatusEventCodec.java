@@ -0,0 +1,197 @@
+package com.example.orderevents;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Бинарный формат события order.status (версия схемы 1).
+ *
+ * <pre>
+ * byte     версия схемы
+ * byte     флаги присутствия: userId, restaurantId, previousStatus, reason
+ * 16 байт  eventId (UUID)
+ * varlong  orderId
+ * varlong  userId           — если есть
+ * varlong  restaurantId     — если есть
+ * byte     код status
+ * byte     код previousStatus — если есть
+ * varlong  occurredAt, мс эпохи
+ * varint + UTF-8 reason     — если есть
+ * </pre>
+ *
+ * Коды статусов фиксированы и не зависят от порядка констант в enum. Новые поля
+ * добавляются только с новой версией; decode читает все версии до текущей.
+ * Единственная реализация формата: order-service пишет, подписчики читают ею же.
+ */
+public final class OrderStatusEventCodec {
+    public static final String CONTENT_TYPE = "application/vnd.order-status-event";
+    public static final int VERSION = 1;
+
+    // Код статуса = индекс + 1; новые статусы только дописываются в конец
+    private static final List<String> STATUSES = List.of(
+            "PENDING", "CONFIRMED", "PREPARING", "OUT_FOR_DELIVERY", "DELIVERED", "CANCELLED");
+
+    private static final int HAS_USER_ID = 1;
+    private static final int HAS_RESTAURANT_ID = 1 << 1;
+    private static final int HAS_PREVIOUS_STATUS = 1 << 2;
+    private static final int HAS_REASON = 1 << 3;
+
+    private OrderStatusEventCodec() {
+    }
+
+    public static byte[] encode(OrderStatusMessage event) {
+        if (event.getEventId() == null || event.getOrderId() == null
+                || event.getStatus() == null || event.getOccurredAt() == null) {
+            throw new IllegalArgumentException("eventId, orderId, status and occurredAt are required: " + event);
+        }
+        byte[] reason = event.getReason() != null ? event.getReason().getBytes(StandardCharsets.UTF_8) : null;
+
+        int flags = 0;
+        if (event.getUserId() != null) {
+            flags |= HAS_USER_ID;
+        }
+        if (event.getRestaurantId() != null) {
+            flags |= HAS_RESTAURANT_ID;
+        }
+        if (event.getPreviousStatus() != null) {
+            flags |= HAS_PREVIOUS_STATUS;
+        }
+        if (reason != null) {
+            flags |= HAS_REASON;
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(48 + (reason != null ? reason.length : 0));
+        out.write(VERSION);
+        out.write(flags);
+
+        UUID eventId = UUID.fromString(event.getEventId());
+        writeFixedLong(out, eventId.getMostSignificantBits());
+        writeFixedLong(out, eventId.getLeastSignificantBits());
+
+        writeVarLong(out, event.getOrderId());
+        if (event.getUserId() != null) {
+            writeVarLong(out, event.getUserId());
+        }
+        if (event.getRestaurantId() != null) {
+            writeVarLong(out, event.getRestaurantId());
+        }
+        out.write(statusCode(event.getStatus()));
+        if (event.getPreviousStatus() != null) {
+            out.write(statusCode(event.getPreviousStatus()));
+        }
+        writeVarLong(out, event.getOccurredAt().toEpochMilli());
+        if (reason != null) {
+            writeVarLong(out, reason.length);
+            out.write(reason, 0, reason.length);
+        }
+        return out.toByteArray();
+    }
+
+    public static OrderStatusMessage decode(byte[] bytes) {
+        Reader in = new Reader(bytes);
+        int version = in.readByte();
+        if (version < 1 || version > VERSION) {
+            throw new IllegalArgumentException("Unsupported order status event schema version: " + version);
+        }
+        int flags = in.readByte();
+
+        OrderStatusMessage event = new OrderStatusMessage();
+        event.setEventId(new UUID(in.readFixedLong(), in.readFixedLong()).toString());
+        event.setOrderId(in.readVarLong());
+        if ((flags & HAS_USER_ID) != 0) {
+            event.setUserId(in.readVarLong());
+        }
+        if ((flags & HAS_RESTAURANT_ID) != 0) {
+            event.setRestaurantId(in.readVarLong());
+        }
+        event.setStatus(status(in.readByte()));
+        if ((flags & HAS_PREVIOUS_STATUS) != 0) {
+            event.setPreviousStatus(status(in.readByte()));
+        }
+        event.setOccurredAt(Instant.ofEpochMilli(in.readVarLong()));
+        if ((flags & HAS_REASON) != 0) {
+            int length = (int) in.readVarLong();
+            event.setReason(new String(in.readBytes(length), StandardCharsets.UTF_8));
+        }
+        return event;
+    }
+
+    private static int statusCode(String status) {
+        int index = STATUSES.indexOf(status);
+        if (index < 0) {
+            throw new IllegalArgumentException("Unknown order status: " + status);
+        }
+        return index + 1;
+    }
+
+    private static String status(int code) {
+        if (code < 1 || code > STATUSES.size()) {
+            throw new IllegalArgumentException("Unknown order status code: " + code);
+        }
+        return STATUSES.get(code - 1);
+    }
+
+    private static void writeFixedLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    // Беззнаковый LEB128: id и время в мс занимают 1–6 байт вместо 8
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static final class Reader {
+        private final byte[] bytes;
+        private int position;
+
+        Reader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int readByte() {
+            if (position >= bytes.length) {
+                throw new IllegalArgumentException("Truncated order status event");
+            }
+            return bytes[position++] & 0xFF;
+        }
+
+        long readFixedLong() {
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | readByte();
+            }
+            return value;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in order status event");
+        }
+
+        byte[] readBytes(int length) {
+            if (length < 0 || position + length > bytes.length) {
+                throw new IllegalArgumentException("Truncated order status event");
+            }
+            byte[] result = new byte[length];
+            System.arraycopy(bytes, position, result, 0, length);
+            position += length;
+            return result;
+        }
+    }
+}
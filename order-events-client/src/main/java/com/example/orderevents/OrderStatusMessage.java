@@ -0,0 +1,87 @@
+package com.example.orderevents;
+
+import java.time.Instant;
+
+/**
+ * Событие order.status в том виде, в каком оно передается между сервисами:
+ * статусы — имена констант Order.OrderStatus из order-service.
+ */
+public class OrderStatusMessage {
+    private String eventId;
+    private Long orderId;
+    private Long userId;
+    private Long restaurantId;
+    private String previousStatus;
+    private String status;
+    private String reason;
+    private Instant occurredAt;
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(Long orderId) {
+        this.orderId = orderId;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getRestaurantId() {
+        return restaurantId;
+    }
+
+    public void setRestaurantId(Long restaurantId) {
+        this.restaurantId = restaurantId;
+    }
+
+    public String getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public void setPreviousStatus(String previousStatus) {
+        this.previousStatus = previousStatus;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+
+    public Instant getOccurredAt() {
+        return occurredAt;
+    }
+
+    public void setOccurredAt(Instant occurredAt) {
+        this.occurredAt = occurredAt;
+    }
+
+    @Override
+    public String toString() {
+        return "order " + orderId + " " + previousStatus + " -> " + status + " (" + eventId + ")";
+    }
+}
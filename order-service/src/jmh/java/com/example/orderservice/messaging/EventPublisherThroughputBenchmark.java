@@ -0,0 +1,124 @@
+package com.example.orderservice.messaging;
+
+import com.example.orderservice.dto.OrderStatusEvent;
+import com.example.orderservice.model.Order;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.SimpleMessageConverter;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный тест публикации событий order.status в RabbitMQ (нужен запущенный брокер):
+ * прежний путь (convertAndSend без подтверждений) против BatchingEventPublisher с подтверждениями.
+ * Результат — событий в секунду на все потоки.
+ *
+ * mvn -pl order-service -P benchmark test-compile exec:exec \
+ *     -Djmh.args="EventPublisherThroughput -f 1 -jvmArgsAppend -Drabbit.host=localhost"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class EventPublisherThroughputBenchmark {
+    private static final String EXCHANGE = "benchmark.order.exchange";
+    private static final String ROUTING_KEY = "order.status";
+
+    private CachingConnectionFactory directConnectionFactory;
+    private CachingConnectionFactory confirmsConnectionFactory;
+    private RabbitTemplate directTemplate;
+    private BatchingEventPublisher batchingPublisher;
+    private OrderStatusEvent event;
+
+    @Setup
+    public void setUp() {
+        directConnectionFactory = connectionFactory(CachingConnectionFactory.ConfirmType.NONE);
+        confirmsConnectionFactory = connectionFactory(CachingConnectionFactory.ConfirmType.CORRELATED);
+
+        // Очередь ограничена по длине: брокер не копит миллионы сообщений за прогон
+        AmqpAdmin admin = new RabbitAdmin(directConnectionFactory);
+        DirectExchange exchange = new DirectExchange(EXCHANGE, false, true);
+        Queue queue = QueueBuilder.nonDurable("benchmark.order.status")
+                .autoDelete()
+                .maxLength(100_000)
+                .build();
+        admin.declareExchange(exchange);
+        admin.declareQueue(queue);
+        admin.declareBinding(BindingBuilder.bind(queue).to(exchange).with(ROUTING_KEY));
+
+        OrderEventMessageConverter converter = new OrderEventMessageConverter(new SimpleMessageConverter());
+        directTemplate = new RabbitTemplate(directConnectionFactory);
+        directTemplate.setMessageConverter(converter);
+
+        RabbitTemplate confirmsTemplate = new RabbitTemplate(confirmsConnectionFactory);
+        confirmsTemplate.setMessageConverter(converter);
+        batchingPublisher = new BatchingEventPublisher(confirmsTemplate, true, 100, 5, 10_000, 1000, 5000, 5000, 3);
+
+        event = OrderStatusEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .orderId(1_284_731L)
+                .userId(58_204L)
+                .restaurantId(317L)
+                .previousStatus(Order.OrderStatus.PREPARING)
+                .status(Order.OrderStatus.OUT_FOR_DELIVERY)
+                .occurredAt(Instant.now())
+                .build();
+    }
+
+    @TearDown(Level.Iteration)
+    public void awaitConfirms() throws InterruptedException {
+        // Следующая итерация начинается без хвоста неподтвержденных событий
+        while (batchingPublisher.getBacklog() > 0) {
+            Thread.sleep(5);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        batchingPublisher.shutdown();
+        System.out.printf("%nbatching publisher: confirmed=%d, failed=%d%n",
+                batchingPublisher.getConfirmed(), batchingPublisher.getFailed());
+        directConnectionFactory.destroy();
+        confirmsConnectionFactory.destroy();
+    }
+
+    @Benchmark
+    public void directWithoutConfirms() {
+        directTemplate.convertAndSend(EXCHANGE, ROUTING_KEY, event);
+    }
+
+    @Benchmark
+    public void batchingWithConfirms() {
+        batchingPublisher.publish(EXCHANGE, ROUTING_KEY, event);
+    }
+
+    private CachingConnectionFactory connectionFactory(CachingConnectionFactory.ConfirmType confirmType) {
+        CachingConnectionFactory factory = new CachingConnectionFactory(
+                System.getProperty("rabbit.host", "localhost"),
+                Integer.getInteger("rabbit.port", 5672));
+        factory.setUsername(System.getProperty("rabbit.username", "admin"));
+        factory.setPassword(System.getProperty("rabbit.password", "admin123"));
+        factory.setPublisherConfirmType(confirmType);
+        factory.setChannelCacheSize(25);
+        return factory;
+    }
+}
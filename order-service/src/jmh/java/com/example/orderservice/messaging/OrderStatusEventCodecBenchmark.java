@@ -0,0 +1,78 @@
+package com.example.orderservice.messaging;
+
+import com.example.orderevents.OrderStatusEventCodec;
+import com.example.orderservice.dto.OrderStatusEvent;
+import com.example.orderservice.model.Order;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость кодирования события order.status: бинарный формат против JSON (как в
+ * Jackson2JsonMessageConverter). Размер сообщения печатается при подготовке.
+ * Бинарный вариант включает перевод в OrderStatusMessage, как в OrderEventMessageConverter.
+ *
+ * mvn -pl order-service -P benchmark test-compile exec:exec -Djmh.args="OrderStatusEventCodec -f 1"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OrderStatusEventCodecBenchmark {
+    private OrderStatusEvent event;
+    private ObjectMapper objectMapper;
+    private byte[] binary;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        event = OrderStatusEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .orderId(1_284_731L)
+                .userId(58_204L)
+                .restaurantId(317L)
+                .previousStatus(Order.OrderStatus.PREPARING)
+                .status(Order.OrderStatus.CANCELLED)
+                .reason("User cancelled")
+                .occurredAt(Instant.now())
+                .build();
+        objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+        binary = OrderStatusEventCodec.encode(event.toMessage());
+        json = objectMapper.writeValueAsBytes(event);
+        System.out.printf("%nmessage size: binary=%d bytes, json=%d bytes%n", binary.length, json.length);
+    }
+
+    @Benchmark
+    public byte[] encodeBinary() {
+        return OrderStatusEventCodec.encode(event.toMessage());
+    }
+
+    @Benchmark
+    public OrderStatusEvent decodeBinary() {
+        return OrderStatusEvent.fromMessage(OrderStatusEventCodec.decode(binary));
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws IOException {
+        return objectMapper.writeValueAsBytes(event);
+    }
+
+    @Benchmark
+    public OrderStatusEvent decodeJson() throws IOException {
+        return objectMapper.readValue(json, OrderStatusEvent.class);
+    }
+}
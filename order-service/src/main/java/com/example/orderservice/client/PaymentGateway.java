@@ -0,0 +1,25 @@
+package com.example.orderservice.client;
+
+/**
+ * Платежный шлюз. Реализация выбирается свойством payments.gateway.type
+ * (сейчас только simulator).
+ */
+public interface PaymentGateway {
+
+    /**
+     * Списание по платежу. Повтор с тем же idempotencyKey не списывает повторно,
+     * а возвращает результат первого вызова.
+     *
+     * @throws PaymentGatewayException шлюз недоступен или не ответил: результат неизвестен,
+     *                                 вызов можно повторить с тем же ключом
+     */
+    PaymentResult charge(PaymentRequest request);
+
+    /**
+     * Возврат списания transactionId. Повтор с тем же idempotencyKey не возвращает деньги повторно.
+     *
+     * @throws PaymentGatewayException шлюз недоступен или не ответил: результат неизвестен,
+     *                                 вызов можно повторить с тем же ключом
+     */
+    void refund(String idempotencyKey, String transactionId, Integer amount);
+}
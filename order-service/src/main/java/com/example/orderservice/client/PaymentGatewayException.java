@@ -0,0 +1,8 @@
+package com.example.orderservice.client;
+
+// Временный сбой платежного шлюза: вызов можно повторить с тем же ключом идемпотентности
+public class PaymentGatewayException extends RuntimeException {
+    public PaymentGatewayException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.model.Payment;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentRequest {
+    private String idempotencyKey;
+    private Long orderId;
+    private Long userId;
+    private Integer amount;
+    private Payment.PaymentMethod method;
+}
@@ -0,0 +1,23 @@
+package com.example.orderservice.client;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Ответ шлюза: списание прошло (transactionId) или отклонено (declineReason)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentResult {
+    private boolean approved;
+    private String transactionId;
+    private String declineReason;
+
+    public static PaymentResult approved(String transactionId) {
+        return new PaymentResult(true, transactionId, null);
+    }
+
+    public static PaymentResult declined(String reason) {
+        return new PaymentResult(false, null, reason);
+    }
+}
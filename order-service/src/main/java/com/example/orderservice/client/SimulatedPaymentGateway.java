@@ -0,0 +1,84 @@
+package com.example.orderservice.client;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Локальный имитатор платежного шлюза для разработки и нагрузочных прогонов:
+ * задержка latency-ms ± latency-jitter-ms, доля отказов банка decline-rate
+ * и доля временных сбоев error-rate (PaymentGatewayException).
+ * Результаты запоминаются по ключу идемпотентности, как у настоящего шлюза.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "payments.gateway.type", havingValue = "simulator", matchIfMissing = true)
+public class SimulatedPaymentGateway implements PaymentGateway {
+    private static final int MAX_REMEMBERED_RESULTS = 100_000;
+
+    private final long latencyMs;
+    private final long latencyJitterMs;
+    private final double declineRate;
+    private final double errorRate;
+    private final Map<String, PaymentResult> results = new ConcurrentHashMap<>();
+
+    public SimulatedPaymentGateway(@Value("${payments.gateway.simulator.latency-ms:200}") long latencyMs,
+                                   @Value("${payments.gateway.simulator.latency-jitter-ms:100}") long latencyJitterMs,
+                                   @Value("${payments.gateway.simulator.decline-rate:0.05}") double declineRate,
+                                   @Value("${payments.gateway.simulator.error-rate:0.02}") double errorRate) {
+        this.latencyMs = latencyMs;
+        this.latencyJitterMs = latencyJitterMs;
+        this.declineRate = declineRate;
+        this.errorRate = errorRate;
+        log.info("Payment gateway simulator: latency {}±{} ms, decline rate {}, error rate {}",
+                latencyMs, latencyJitterMs, declineRate, errorRate);
+    }
+
+    @Override
+    public PaymentResult charge(PaymentRequest request) {
+        PaymentResult previous = results.get(request.getIdempotencyKey());
+        if (previous != null) {
+            return previous;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        sleep(Math.max(0, latencyMs + (latencyJitterMs > 0 ? random.nextLong(-latencyJitterMs, latencyJitterMs + 1) : 0)));
+        if (random.nextDouble() < errorRate) {
+            throw new PaymentGatewayException("Simulated gateway timeout for order " + request.getOrderId());
+        }
+
+        PaymentResult result = random.nextDouble() < declineRate
+                ? PaymentResult.declined("Simulated decline: insufficient funds")
+                : PaymentResult.approved("sim-" + UUID.randomUUID());
+        if (results.size() >= MAX_REMEMBERED_RESULTS) {
+            results.clear();
+        }
+        PaymentResult existing = results.putIfAbsent(request.getIdempotencyKey(), result);
+        return existing != null ? existing : result;
+    }
+
+    @Override
+    public void refund(String idempotencyKey, String transactionId, Integer amount) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        sleep(Math.max(0, latencyMs + (latencyJitterMs > 0 ? random.nextLong(-latencyJitterMs, latencyJitterMs + 1) : 0)));
+        if (random.nextDouble() < errorRate) {
+            throw new PaymentGatewayException("Simulated gateway timeout for refund " + idempotencyKey);
+        }
+        log.info("Simulated refund {} of transaction {}: {}", idempotencyKey, transactionId, amount);
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PaymentGatewayException("Interrupted while waiting for simulated gateway");
+        }
+    }
+}
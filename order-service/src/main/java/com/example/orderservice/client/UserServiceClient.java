@@ -0,0 +1,224 @@
+package com.example.orderservice.client;
+
+import com.example.orderservice.dto.UserContact;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Клиент user-service с объединением запросов и локальным TTL-кэшем.
+ *
+ * Одновременные запросы разных пользователей в пределах окна coalesce-window-ms
+ * собираются в один вызов /internal/users/batch; повторный запрос того же id,
+ * пока первый в полете, получает тот же future.
+ */
+@Slf4j
+@Component
+public class UserServiceClient {
+
+    private final RestClient restClient;
+    private final String internalApiToken;
+    private final long coalesceWindowMs;
+    private final int maxBatchSize;
+    private final long cacheTtlMs;
+    private final int cacheMaxSize;
+    private final long lookupTimeoutMs;
+
+    private final Map<Long, CacheEntry> cache = new ConcurrentHashMap<>();
+    private final Map<Long, CompletableFuture<Optional<UserContact>>> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+
+    private final Object pendingLock = new Object();
+    private List<Long> pendingIds = new ArrayList<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public UserServiceClient(RestClient.Builder loadBalancedRestClientBuilder,
+                             @Value("${user-service.client.base-url:http://USER-SERVICE}") String baseUrl,
+                             @Value("${internal.api-token}") String internalApiToken,
+                             @Value("${user-service.client.coalesce-window-ms:5}") long coalesceWindowMs,
+                             @Value("${user-service.client.max-batch-size:200}") int maxBatchSize,
+                             @Value("${user-service.client.cache-ttl-seconds:60}") long cacheTtlSeconds,
+                             @Value("${user-service.client.cache-max-size:10000}") int cacheMaxSize,
+                             @Value("${user-service.client.lookup-timeout-ms:3000}") long lookupTimeoutMs,
+                             @Value("${user-service.client.threads:4}") int threads) {
+        if (internalApiToken.isBlank()) {
+            throw new IllegalStateException("internal.api-token is empty: set INTERNAL_API_TOKEN");
+        }
+        this.restClient = loadBalancedRestClientBuilder.baseUrl(baseUrl).build();
+        this.internalApiToken = internalApiToken;
+        this.coalesceWindowMs = coalesceWindowMs;
+        this.maxBatchSize = maxBatchSize;
+        this.cacheTtlMs = cacheTtlSeconds * 1000;
+        this.cacheMaxSize = cacheMaxSize;
+        this.lookupTimeoutMs = lookupTimeoutMs;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.scheduler = Executors.newScheduledThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-client-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    // Пустой Optional — пользователя нет в user-service
+    public CompletableFuture<Optional<UserContact>> getUser(Long userId) {
+        CacheEntry cached = cache.get(userId);
+        if (cached != null && !cached.isExpired()) {
+            return CompletableFuture.completedFuture(Optional.ofNullable(cached.contact));
+        }
+
+        CompletableFuture<Optional<UserContact>> created = new CompletableFuture<>();
+        CompletableFuture<Optional<UserContact>> existing = inFlight.putIfAbsent(userId, created);
+        if (existing != null) {
+            return existing;
+        }
+        enqueue(userId);
+        return created;
+    }
+
+    // Синхронный вариант для списков: все промахи уходят в один или несколько batch-запросов
+    public Map<Long, UserContact> getUsers(Collection<Long> userIds) {
+        Map<Long, CompletableFuture<Optional<UserContact>>> futures = new HashMap<>();
+        for (Long userId : userIds) {
+            if (userId != null) {
+                futures.computeIfAbsent(userId, this::getUser);
+            }
+        }
+
+        CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
+                .orTimeout(lookupTimeoutMs, TimeUnit.MILLISECONDS)
+                .join();
+
+        Map<Long, UserContact> result = new HashMap<>();
+        futures.forEach((userId, future) -> future.join().ifPresent(contact -> result.put(userId, contact)));
+        return result;
+    }
+
+    public void evict(Long userId) {
+        cache.remove(userId);
+    }
+
+    private void enqueue(Long userId) {
+        List<Long> toDispatch = null;
+        synchronized (pendingLock) {
+            pendingIds.add(userId);
+            if (pendingIds.size() >= maxBatchSize) {
+                toDispatch = takePending();
+            } else if (scheduledFlush == null) {
+                scheduledFlush = scheduler.schedule(this::flushPending, coalesceWindowMs, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (toDispatch != null) {
+            List<Long> batch = toDispatch;
+            scheduler.execute(() -> fetchBatch(batch));
+        }
+    }
+
+    private void flushPending() {
+        List<Long> batch;
+        synchronized (pendingLock) {
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            fetchBatch(batch);
+        }
+    }
+
+    // Вызывается под pendingLock
+    private List<Long> takePending() {
+        List<Long> batch = pendingIds;
+        pendingIds = new ArrayList<>();
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    private void fetchBatch(List<Long> ids) {
+        try {
+            BatchResponse response = restClient.post()
+                    .uri("/internal/users/batch")
+                    .header("X-Internal-Token", internalApiToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(Map.of("ids", ids))
+                    .retrieve()
+                    .body(BatchResponse.class);
+
+            Map<Long, UserContact> found = new HashMap<>();
+            if (response != null && response.getUsers() != null) {
+                response.getUsers().forEach(contact -> found.put(contact.getId(), contact));
+            }
+            log.debug("User batch lookup: requested {}, found {}", ids.size(), found.size());
+
+            long expiresAt = System.currentTimeMillis() + cacheTtlMs;
+            for (Long id : ids) {
+                UserContact contact = found.get(id);
+                // Отсутствующие id тоже кэшируются, чтобы не запрашивать их повторно
+                putInCache(id, new CacheEntry(contact, expiresAt));
+                complete(id, Optional.ofNullable(contact));
+            }
+        } catch (Exception e) {
+            log.warn("User batch lookup failed for {} ids: {}", ids.size(), e.getMessage());
+            for (Long id : ids) {
+                CompletableFuture<Optional<UserContact>> future = inFlight.remove(id);
+                if (future != null) {
+                    future.completeExceptionally(e);
+                }
+            }
+        }
+    }
+
+    private void complete(Long id, Optional<UserContact> contact) {
+        CompletableFuture<Optional<UserContact>> future = inFlight.remove(id);
+        if (future != null) {
+            future.complete(contact);
+        }
+    }
+
+    private void putInCache(Long id, CacheEntry entry) {
+        if (cache.size() >= cacheMaxSize) {
+            cache.values().removeIf(CacheEntry::isExpired);
+            if (cache.size() >= cacheMaxSize) {
+                return;
+            }
+        }
+        cache.put(id, entry);
+    }
+
+    private record CacheEntry(UserContact contact, long expiresAt) {
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    static class BatchResponse {
+        private List<UserContact> users;
+    }
+}
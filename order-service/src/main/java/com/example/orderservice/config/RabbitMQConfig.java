@@ -1,9 +1,23 @@
 package com.example.orderservice.config;
 
+import com.example.orderevents.OrderEventRetryRouter;
+import com.example.orderservice.messaging.OrderEventMessageConverter;
+import com.example.orderservice.messaging.OrderQueueTopology;
+import com.example.orderservice.service.PaymentEventListener;
+import com.example.orderservice.service.PaymentResultListener;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.List;
+
 @Configuration
 public class RabbitMQConfig {
 
@@ -13,33 +27,77 @@ public class RabbitMQConfig {
         return new TopicExchange("order.exchange");
     }
 
-    // 2. Queue для событий создания заказа
+    // 2. Очереди order.created.queue, итогов платежей и партиции order.status.queue с dead-letter exchange,
+    // очередями задержки повторов и parking lot (см. OrderQueueTopology)
     @Bean
-    public Queue orderCreatedQueue() {
-        return new Queue("order.created.queue", true); // true = durable (сохраняется при перезапуске)
+    public OrderQueueTopology orderQueueTopology(
+            @Value("${order-events.topology.queue-type:classic}") String queueType,
+            @Value("${order-events.topology.max-length:100000}") long maxLength,
+            @Value("${order-events.topology.parking-max-length:100000}") long parkingMaxLength,
+            @Value("${order-events.topology.retry-delays-ms:1000,10000,60000}") List<Long> retryDelaysMs,
+            @Value("${order-events.topology.delivery-limit:10}") int deliveryLimit,
+            @Value("${order-events.topology.status-partitions:4}") int statusPartitions) {
+        return new OrderQueueTopology(orderExchange(), "quorum".equalsIgnoreCase(queueType),
+                maxLength, parkingMaxLength, retryDelaysMs, deliveryLimit)
+                .queue("order.created.queue", "order.created")
+                .queue(PaymentEventListener.QUEUE, "order.created")
+                .queue(PaymentResultListener.QUEUE, "payment.*")
+                .partitionedQueue("order.status.queue", "order.status", statusPartitions);
     }
 
-    // 3. Queue для событий изменения статуса заказа
     @Bean
-    public Queue orderStatusQueue() {
-        return new Queue("order.status.queue", true);
+    public Declarables orderQueues(OrderQueueTopology orderQueueTopology) {
+        return orderQueueTopology.declarables();
     }
 
-    // 4. Binding: связывает очередь создания заказов с exchange
+    // 3. order.status — бинарный формат с версией схемы, остальные события в JSON
+    // (тем же ObjectMapper, что и REST: даты в ISO-8601)
     @Bean
-    public Binding orderCreatedBinding() {
-        return BindingBuilder
-                .bind(orderCreatedQueue())          // какую очередь связываем
-                .to(orderExchange())                // с каким exchange
-                .with("order.created");             // по какому routing key
+    public MessageConverter rabbitMessageConverter(ObjectMapper objectMapper) {
+        return new OrderEventMessageConverter(new Jackson2JsonMessageConverter(objectMapper));
+    }
+
+    // 4. Очередь экземпляра для push-уведомлений: каждый экземпляр получает все изменения статусов,
+    // т.к. подписчики SSE распределены по экземплярам. Удаляется при остановке экземпляра
+    @Bean
+    public AnonymousQueue orderStatusPushQueue() {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("order.status.push."));
     }
 
-    // 5. Binding: связывает очередь статусов с exchange
     @Bean
-    public Binding orderStatusBinding() {
+    public Binding orderStatusPushBinding() {
         return BindingBuilder
-                .bind(orderStatusQueue())           // какую очередь связываем
-                .to(orderExchange())                // с каким exchange
-                .with("order.status");              // по какому routing key
+                .bind(orderStatusPushQueue())
+                .to(orderExchange())
+                .with("order.status");
+    }
+
+    // 5. Обработчик платежей: consumer'ов не больше max-concurrency, prefetch небольшой —
+    // сообщения не копятся у занятого consumer'а, пока он ждет шлюз
+    @Bean
+    public SimpleRabbitListenerContainerFactory paymentContainerFactory(
+            ConnectionFactory connectionFactory,
+            MessageConverter rabbitMessageConverter,
+            @Value("${payments.worker.concurrency:4}") int concurrency,
+            @Value("${payments.worker.max-concurrency:8}") int maxConcurrency,
+            @Value("${payments.worker.prefetch:2}") int prefetch) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(rabbitMessageConverter);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setDefaultRequeueRejected(false);
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(Math.max(concurrency, maxConcurrency));
+        factory.setPrefetchCount(prefetch);
+        return factory;
+    }
+
+    // 6. Повторы через очереди задержки: копия публикуется с подтверждением до ack исходного
+    @Bean
+    public OrderEventRetryRouter orderEventRetryRouter(
+            RabbitTemplate rabbitTemplate,
+            @Value("${order-events.topology.retry-delays-ms:1000,10000,60000}") List<Long> retryDelaysMs,
+            @Value("${order-events.retry.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        return new OrderEventRetryRouter(rabbitTemplate, retryDelaysMs, confirmTimeoutMs);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,24 @@
+package com.example.orderservice.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+@Configuration
+public class UserServiceClientConfig {
+
+    // Балансировка через Eureka: http://USER-SERVICE/...
+    @Bean
+    @LoadBalanced
+    public RestClient.Builder loadBalancedRestClientBuilder(
+            @Value("${user-service.client.connect-timeout-ms:1000}") int connectTimeoutMs,
+            @Value("${user-service.client.read-timeout-ms:2000}") int readTimeoutMs) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeoutMs);
+        requestFactory.setReadTimeout(readTimeoutMs);
+        return RestClient.builder().requestFactory(requestFactory);
+    }
+}
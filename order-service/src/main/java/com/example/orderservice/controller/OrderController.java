@@ -1,7 +1,12 @@
 package com.example.orderservice.controller;
 
+import com.example.orderservice.client.UserServiceClient;
+import com.example.orderservice.dto.BulkStatusUpdateRequest;
+import com.example.orderservice.dto.BulkStatusUpdateResult;
 import com.example.orderservice.dto.CreateOrderRequest;
 import com.example.orderservice.dto.OrderResponseDto;
+import com.example.orderservice.dto.UserContact;
+import com.example.orderservice.exception.OrderStatusConflictException;
 import com.example.orderservice.service.OrderService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -9,12 +14,15 @@ import lombok.RequiredArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -23,6 +31,10 @@ import java.util.Map;
 public class OrderController {
 
     private final OrderService orderService;
+    private final UserServiceClient userServiceClient;
+
+    @Value("${user-service.client.lookup-timeout-ms:3000}")
+    private long userLookupTimeoutMs;
 
     // НОВЫЙ МЕТОД: Получить все заказы (для администратора)
     @GetMapping("/admin/all")
@@ -128,6 +140,14 @@ public class OrderController {
                     "requestedStatus", request.getStatus()
             ));
 
+        } catch (OrderStatusConflictException e) {
+            System.err.println("❌ [API Gateway] Недопустимый переход статуса: " + e.getMessage());
+            return ResponseEntity.status(409).body(Map.of(
+                    "error", e.getMessage(),
+                    "orderId", orderId,
+                    "requestedStatus", request.getStatus()
+            ));
+
         } catch (RuntimeException e) {
             System.err.println("❌ [API Gateway] Ошибка обновления статуса: " + e.getMessage());
             e.printStackTrace();
@@ -149,6 +169,44 @@ public class OrderController {
         }
     }
 
+    // Групповое обновление статуса (диспетчерская, экран кухни)
+    @PutMapping("/status")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
+    @Operation(summary = "Обновить статус группы заказов")
+    public ResponseEntity<?> updateOrderStatuses(@RequestBody BulkStatusUpdateRequest request) {
+        System.out.println("🔄 [API Gateway] Групповое обновление статуса: " + request.getStatus());
+
+        try {
+            BulkStatusUpdateResult result = orderService.updateOrderStatuses(
+                    request.getOrderIds(), request.getStatus(), request.getReason());
+            System.out.println("✅ [API Gateway] Обновлено заказов: " + result.getUpdated()
+                    + ", отклонено: " + result.getRejected());
+            return ResponseEntity.ok(result);
+
+        } catch (IllegalArgumentException e) {
+            System.err.println("❌ [API Gateway] Некорректный запрос: " + e.getMessage());
+            return ResponseEntity.badRequest().body(Map.of(
+                    "error", e.getMessage(),
+                    "requestedStatus", String.valueOf(request.getStatus())
+            ));
+
+        } catch (OrderStatusConflictException e) {
+            System.err.println("❌ [API Gateway] Недопустимый переход статуса: " + e.getMessage());
+            return ResponseEntity.status(409).body(Map.of(
+                    "error", e.getMessage(),
+                    "requestedStatus", request.getStatus()
+            ));
+
+        } catch (RuntimeException e) {
+            System.err.println("❌ [API Gateway] Ошибка группового обновления статуса: " + e.getMessage());
+            e.printStackTrace();
+            return ResponseEntity.status(500).body(Map.of(
+                    "error", "Внутренняя ошибка сервера: " + e.getMessage(),
+                    "requestedStatus", String.valueOf(request.getStatus())
+            ));
+        }
+    }
+
     // НОВЫЙ МЕТОД: Отменить заказ (админ)
     @DeleteMapping("/{orderId}/cancel")
     @PreAuthorize("hasRole('ADMIN') or hasRole('MANAGER')")
@@ -160,6 +218,12 @@ public class OrderController {
         try {
             OrderResponseDto cancelledOrder = orderService.cancelOrder(orderId);
             return ResponseEntity.ok(cancelledOrder);
+        } catch (OrderStatusConflictException e) {
+            System.err.println("❌ [API Gateway] Заказ нельзя отменить: " + e.getMessage());
+            return ResponseEntity.status(409).body(Map.of(
+                    "error", e.getMessage(),
+                    "orderId", orderId
+            ));
         } catch (RuntimeException e) {
             System.err.println("❌ [API Gateway] Ошибка отмены заказа: " + e.getMessage());
             return ResponseEntity.badRequest().body(Map.of(
@@ -190,18 +254,27 @@ public class OrderController {
         }
 
         try {
-            // В реальном приложении здесь нужно получить данные из user-service
-            // Пока возвращаем заглушку
+            // Запрос объединяется с параллельными в batch-вызов user-service и кэшируется
+            Optional<UserContact> contact = userServiceClient.getUser(userId)
+                    .get(userLookupTimeoutMs, TimeUnit.MILLISECONDS);
+            if (contact.isEmpty()) {
+                return ResponseEntity.status(404).build();
+            }
+
             UserDetailsResponse response = new UserDetailsResponse();
             response.setUserId(userId);
-            response.setEmail("user@example.com");
-            response.setFullName("User Name");
-            response.setTelephone("+1234567890");
-            response.setFromUserService(false);
+            response.setEmail(contact.get().getEmail());
+            response.setFullName(contact.get().getFullName());
+            response.setTelephone(contact.get().getTelephone());
+            response.setFromUserService(true);
 
             return ResponseEntity.ok(response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return ResponseEntity.status(503).build();
         } catch (Exception e) {
-            return ResponseEntity.badRequest().build();
+            System.err.println("❌ [API Gateway] user-service недоступен: " + e.getMessage());
+            return ResponseEntity.status(503).build();
         }
     }
 
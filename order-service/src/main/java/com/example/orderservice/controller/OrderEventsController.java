@@ -0,0 +1,33 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.service.OrderStatusPushService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/orders")
+@RequiredArgsConstructor
+@Tag(name = "Заказы", description = "API для управления заказами")
+public class OrderEventsController {
+
+    private final OrderStatusPushService orderStatusPushService;
+
+    // Поток событий order-status вместо опроса GET /api/orders/{orderId}.
+    // При переподключении EventSource сам передает Last-Event-ID и получает пропущенные события
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Поток изменений статуса заказов пользователя (SSE)")
+    public SseEmitter streamOrderEvents(
+            @RequestHeader("X-User-Id") Long userId,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            HttpServletResponse response) {
+        response.setHeader("Cache-Control", "no-cache");
+        // Отключает буферизацию ответа в nginx перед gateway
+        response.setHeader("X-Accel-Buffering", "no");
+        return orderStatusPushService.subscribe(userId, lastEventId);
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.orderservice.controller;
+
+import com.example.orderservice.dto.ParkingLotReplayResult;
+import com.example.orderservice.service.ParkingLotService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/orders/admin/parking-lot")
+@RequiredArgsConstructor
+@Tag(name = "Parking lot", description = "Сообщения событий заказов, не обработанные consumer'ами")
+public class ParkingLotController {
+
+    private final ParkingLotService parkingLotService;
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Число сообщений в parking lot по очередям")
+    public ResponseEntity<Map<String, Long>> getParkedCounts() {
+        return ResponseEntity.ok(parkingLotService.getParkedCounts());
+    }
+
+    @PostMapping("/{queue}/replay")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Вернуть пачку сообщений из parking lot в основную очередь")
+    public ResponseEntity<?> replay(@PathVariable("queue") String queue,
+                                    @RequestParam(name = "limit", defaultValue = "100") int limit) {
+        try {
+            return ResponseEntity.ok(parkingLotService.replay(queue, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
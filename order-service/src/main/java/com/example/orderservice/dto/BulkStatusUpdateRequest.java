@@ -0,0 +1,17 @@
+package com.example.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Перевод группы заказов в один статус (диспетчерская, экран кухни)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateRequest {
+    private List<Long> orderIds;
+    private String status;
+    private String reason;
+}
@@ -0,0 +1,34 @@
+package com.example.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Итог группового перехода статуса: результат по каждому заказу в порядке запроса
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStatusUpdateResult {
+    private String status;
+    private int updated;
+    private int rejected;
+    private List<OrderOutcome> orders;
+
+    public enum Outcome {
+        UPDATED,
+        NOT_FOUND,
+        CONFLICT      // текущий статус не допускает перехода
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OrderOutcome {
+        private Long orderId;
+        private Outcome outcome;
+        private String previousStatus;
+        private String currentStatus;
+    }
+}
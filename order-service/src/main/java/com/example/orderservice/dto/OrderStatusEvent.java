@@ -0,0 +1,82 @@
+package com.example.orderservice.dto;
+
+import com.example.orderevents.OrderStatusMessage;
+import com.example.orderservice.model.Order;
+import com.example.orderservice.repository.OrderStatusTransition;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Событие order.status: изменение статуса заказа, в том числе отмена
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusEvent {
+    // Назначается при публикации, одинаков во всех экземплярах — по нему клиент возобновляет поток
+    private String eventId;
+    private Long orderId;
+    private Long userId;
+    private Long restaurantId;
+    private Order.OrderStatus previousStatus;
+    private Order.OrderStatus status;
+    private String reason;
+    private Instant occurredAt;
+
+    public static OrderStatusEvent fromOrder(Order order, Order.OrderStatus previousStatus, String reason) {
+        return OrderStatusEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .orderId(order.getId())
+                .userId(order.getUserId())
+                .restaurantId(order.getRestaurantId())
+                .previousStatus(previousStatus)
+                .status(order.getStatus())
+                .reason(reason)
+                .occurredAt(Instant.now())
+                .build();
+    }
+
+    public static OrderStatusEvent fromTransition(OrderStatusTransition transition, String reason) {
+        return OrderStatusEvent.builder()
+                .eventId(UUID.randomUUID().toString())
+                .orderId(transition.getId())
+                .userId(transition.getUserId())
+                .restaurantId(transition.getRestaurantId())
+                .previousStatus(Order.OrderStatus.valueOf(transition.getPreviousStatus()))
+                .status(Order.OrderStatus.valueOf(transition.getStatus()))
+                .reason(reason)
+                .occurredAt(Instant.now())
+                .build();
+    }
+
+    public OrderStatusMessage toMessage() {
+        OrderStatusMessage message = new OrderStatusMessage();
+        message.setEventId(eventId);
+        message.setOrderId(orderId);
+        message.setUserId(userId);
+        message.setRestaurantId(restaurantId);
+        message.setPreviousStatus(previousStatus != null ? previousStatus.name() : null);
+        message.setStatus(status != null ? status.name() : null);
+        message.setReason(reason);
+        message.setOccurredAt(occurredAt);
+        return message;
+    }
+
+    public static OrderStatusEvent fromMessage(OrderStatusMessage message) {
+        return OrderStatusEvent.builder()
+                .eventId(message.getEventId())
+                .orderId(message.getOrderId())
+                .userId(message.getUserId())
+                .restaurantId(message.getRestaurantId())
+                .previousStatus(message.getPreviousStatus() != null
+                        ? Order.OrderStatus.valueOf(message.getPreviousStatus()) : null)
+                .status(Order.OrderStatus.valueOf(message.getStatus()))
+                .reason(message.getReason())
+                .occurredAt(message.getOccurredAt())
+                .build();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Итог переотправки пачки сообщений из parking lot в основную очередь
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingLotReplayResult {
+    private String queue;
+    private int replayed;
+    private int failed;
+    private long remaining;
+}
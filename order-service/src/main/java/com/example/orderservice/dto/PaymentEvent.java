@@ -0,0 +1,28 @@
+package com.example.orderservice.dto;
+
+import com.example.orderservice.model.Payment;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// События payment.completed и payment.failed: итог обработки платежа заказа
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentEvent {
+    private String eventId;
+    private Long paymentId;
+    private Long orderId;
+    private Long userId;
+    private Long restaurantId;
+    private Integer amount;
+    private Payment.PaymentMethod method;
+    private Payment.PaymentStatus status;
+    private String transactionId;
+    private String failureReason;
+    private Instant occurredAt;
+}
@@ -0,0 +1,16 @@
+package com.example.orderservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Контактные данные пользователя из user-service (/internal/users/batch)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserContact {
+    private Long id;
+    private String email;
+    private String fullName;
+    private String telephone;
+}
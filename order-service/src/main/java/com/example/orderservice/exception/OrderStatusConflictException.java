@@ -0,0 +1,8 @@
+package com.example.orderservice.exception;
+
+// Переход статуса недопустим: заказ уже в другом статусе (в том числе изменен параллельно)
+public class OrderStatusConflictException extends RuntimeException {
+    public OrderStatusConflictException(String message) {
+        super(message);
+    }
+}
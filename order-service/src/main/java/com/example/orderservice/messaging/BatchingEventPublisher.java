@@ -0,0 +1,267 @@
+package com.example.orderservice.messaging;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Публикация событий пачками с подтверждениями брокера (publisher confirms).
+ *
+ * Вызывающий поток только сериализует событие и кладет его в очередь. Отдельный поток
+ * собирает пачку (до batch-size событий или linger-ms) и отправляет ее через один канал.
+ * Число неподтвержденных сообщений ограничено окном max-outstanding-confirms: когда окно
+ * заполнено, поток публикации ждет подтверждений, очередь заполняется и вызывающий
+ * получает отказ через enqueue-timeout-ms. nack и таймаут подтверждения — повтор
+ * до max-retries раз; повтор может изменить порядок событий.
+ *
+ * При batching=false — прежний путь: convertAndSend без подтверждений.
+ */
+@Slf4j
+@Component
+public class BatchingEventPublisher {
+
+    private final RabbitTemplate rabbitTemplate;
+    private final boolean batching;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long enqueueTimeoutMs;
+    private final long confirmTimeoutMs;
+    private final int maxRetries;
+
+    private final BlockingQueue<PendingEvent> queue;
+    private final Semaphore window;
+    private final int windowSize;
+    private final Thread publisherThread;
+    private volatile boolean running = true;
+
+    private final AtomicLong confirmed = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+
+    public BatchingEventPublisher(RabbitTemplate rabbitTemplate,
+                                  @Value("${order-events.publisher.batching:true}") boolean batching,
+                                  @Value("${order-events.publisher.batch-size:100}") int batchSize,
+                                  @Value("${order-events.publisher.linger-ms:5}") long lingerMs,
+                                  @Value("${order-events.publisher.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${order-events.publisher.max-outstanding-confirms:1000}") int maxOutstandingConfirms,
+                                  @Value("${order-events.publisher.enqueue-timeout-ms:500}") long enqueueTimeoutMs,
+                                  @Value("${order-events.publisher.confirm-timeout-ms:5000}") long confirmTimeoutMs,
+                                  @Value("${order-events.publisher.max-retries:3}") int maxRetries) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.batching = batching;
+        this.windowSize = Math.max(maxOutstandingConfirms, batchSize);
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.maxRetries = maxRetries;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.window = new Semaphore(windowSize);
+
+        this.publisherThread = new Thread(this::publishLoop, "order-events-publisher");
+        this.publisherThread.setDaemon(true);
+        if (batching) {
+            publisherThread.start();
+        }
+    }
+
+    /**
+     * @throws AmqpException очередь публикации заполнена дольше enqueue-timeout-ms
+     */
+    public void publish(String exchange, String routingKey, Object event) {
+        if (!batching) {
+            rabbitTemplate.convertAndSend(exchange, routingKey, event);
+            return;
+        }
+        // Сериализация в потоке вызывающего: поток публикации занят только сетью
+        Message message = rabbitTemplate.getMessageConverter().toMessage(event, new MessageProperties());
+        PendingEvent pending = new PendingEvent(exchange, routingKey, message, 0);
+        try {
+            if (!queue.offer(pending, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new AmqpException("Event publisher backlog is full (" + queue.size() + " events)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted while enqueueing event", e);
+        }
+    }
+
+    /**
+     * Публикация группы событий одним блоком: все сериализуются заранее и попадают
+     * в очередь подряд, поэтому уходят в одной-двух пачках с общим ожиданием подтверждений.
+     * Без batching — на одном канале.
+     *
+     * @throws AmqpException очередь не приняла все события за enqueue-timeout-ms
+     */
+    public void publishAll(String exchange, String routingKey, List<?> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (!batching) {
+            rabbitTemplate.invoke(template -> {
+                events.forEach(event -> template.convertAndSend(exchange, routingKey, event));
+                return null;
+            });
+            return;
+        }
+        List<PendingEvent> pending = new ArrayList<>(events.size());
+        for (Object event : events) {
+            Message message = rabbitTemplate.getMessageConverter().toMessage(event, new MessageProperties());
+            pending.add(new PendingEvent(exchange, routingKey, message, 0));
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(enqueueTimeoutMs);
+        int enqueued = 0;
+        try {
+            for (PendingEvent event : pending) {
+                if (!queue.offer(event, deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+                enqueued++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted after enqueueing " + enqueued + " of " + pending.size() + " events", e);
+        }
+        if (enqueued < pending.size()) {
+            throw new AmqpException("Event publisher backlog is full: enqueued " + enqueued
+                    + " of " + pending.size() + " events");
+        }
+    }
+
+    public long getConfirmed() {
+        return confirmed.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    // События в очереди и в окне подтверждений
+    public int getBacklog() {
+        return queue.size() + windowSize - window.availablePermits();
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (!batching) {
+            return;
+        }
+        publisherThread.join(TimeUnit.SECONDS.toMillis(5));
+        // Ждем подтверждений уже отправленного, чтобы не потерять события при остановке
+        if (!window.tryAcquire(windowSize, confirmTimeoutMs, TimeUnit.MILLISECONDS)) {
+            log.warn("Stopped with {} unconfirmed events", windowSize - window.availablePermits());
+        }
+        log.info("Event publisher stopped: confirmed={}, retried={}, failed={}",
+                confirmed.get(), retried.get(), failed.get());
+    }
+
+    private void publishLoop() {
+        List<PendingEvent> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    // Под нагрузкой пачка добирается без ожидания
+                    PendingEvent next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                // Backpressure: при заполненном окне ждем подтверждений предыдущих пачек
+                window.acquire(batch.size());
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected error in event publisher", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<PendingEvent> batch) {
+        AtomicInteger sent = new AtomicInteger();
+        try {
+            // Вся пачка идет через один канал из кэша
+            rabbitTemplate.invoke(operations -> {
+                for (PendingEvent event : batch) {
+                    CorrelationData correlation = new CorrelationData();
+                    operations.send(event.exchange(), event.routingKey(), event.message(), correlation);
+                    // Только после успешной отправки: неотправленные события (с этого индекса)
+                    // освобождает и повторяет catch, а не подтверждение закрытого канала
+                    correlation.getFuture()
+                            .orTimeout(confirmTimeoutMs, TimeUnit.MILLISECONDS)
+                            .whenComplete((confirm, error) -> onConfirm(event, correlation, confirm, error));
+                    sent.incrementAndGet();
+                }
+                return null;
+            });
+        } catch (AmqpException e) {
+            log.warn("Failed to publish batch of {} events: {}", batch.size(), e.getMessage());
+            for (int i = sent.get(); i < batch.size(); i++) {
+                window.release();
+                retryOrDrop(batch.get(i), e.getMessage());
+            }
+        }
+    }
+
+    private void onConfirm(PendingEvent event, CorrelationData correlation,
+                           CorrelationData.Confirm confirm, Throwable error) {
+        window.release();
+        if (correlation.getReturned() != null) {
+            // Ни одна очередь не привязана к ключу — повтор не поможет
+            failed.incrementAndGet();
+            log.error("Event to {}/{} was unroutable: {}", event.exchange(), event.routingKey(),
+                    correlation.getReturned().getReplyText());
+            return;
+        }
+        if (error == null && confirm.isAck()) {
+            confirmed.incrementAndGet();
+            return;
+        }
+        retryOrDrop(event, error != null ? "no confirm within " + confirmTimeoutMs + " ms" : confirm.getReason());
+    }
+
+    private void retryOrDrop(PendingEvent event, String reason) {
+        if (event.attempt() < maxRetries && queue.offer(event.nextAttempt())) {
+            retried.incrementAndGet();
+            log.warn("Event to {}/{} not confirmed ({}), retry {}",
+                    event.exchange(), event.routingKey(), reason, event.attempt() + 1);
+            return;
+        }
+        failed.incrementAndGet();
+        log.error("Event to {}/{} dropped after {} attempts: {}",
+                event.exchange(), event.routingKey(), event.attempt() + 1, reason);
+    }
+
+    private record PendingEvent(String exchange, String routingKey, Message message, int attempt) {
+        PendingEvent nextAttempt() {
+            return new PendingEvent(exchange, routingKey, message, attempt + 1);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.orderservice.messaging;
+
+import com.example.orderevents.OrderStatusEventCodec;
+import com.example.orderservice.dto.OrderStatusEvent;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+
+/**
+ * События order.status передаются в бинарном формате {@link OrderStatusEventCodec}
+ * с версией схемы и id заказа в заголовках, остальные сообщения — через delegate (JSON).
+ */
+public class OrderEventMessageConverter implements MessageConverter {
+    public static final String ORDER_STATUS_CONTENT_TYPE = OrderStatusEventCodec.CONTENT_TYPE;
+    public static final String SCHEMA_VERSION_HEADER = "schema-version";
+    // По нему consistent-hash exchange выбирает партицию: события заказа идут в одну очередь
+    public static final String ORDER_ID_HEADER = "order-id";
+
+    private final MessageConverter delegate;
+
+    public OrderEventMessageConverter(MessageConverter delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Message toMessage(Object object, MessageProperties messageProperties) {
+        if (!(object instanceof OrderStatusEvent event)) {
+            return delegate.toMessage(object, messageProperties);
+        }
+        byte[] body;
+        try {
+            body = OrderStatusEventCodec.encode(event.toMessage());
+        } catch (IllegalArgumentException e) {
+            throw new MessageConversionException("Could not encode order status event", e);
+        }
+        messageProperties.setContentType(ORDER_STATUS_CONTENT_TYPE);
+        messageProperties.setHeader(SCHEMA_VERSION_HEADER, OrderStatusEventCodec.VERSION);
+        messageProperties.setHeader(ORDER_ID_HEADER, String.valueOf(event.getOrderId()));
+        messageProperties.setContentLength(body.length);
+        return new Message(body, messageProperties);
+    }
+
+    @Override
+    public Object fromMessage(Message message) {
+        if (!ORDER_STATUS_CONTENT_TYPE.equals(message.getMessageProperties().getContentType())) {
+            return delegate.fromMessage(message);
+        }
+        try {
+            return OrderStatusEvent.fromMessage(OrderStatusEventCodec.decode(message.getBody()));
+        } catch (IllegalArgumentException e) {
+            throw new MessageConversionException("Could not decode order status event, schema version "
+                    + message.getMessageProperties().getHeader(SCHEMA_VERSION_HEADER), e);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.example.orderservice.messaging;
+
+import com.example.orderevents.OrderEventRetryRouter;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.CustomExchange;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Топология устойчивых очередей событий заказов.
+ *
+ * Для каждой основной очереди объявляются:
+ * - сама очередь: max-length с reject-publish (при переполнении брокер отвечает nack
+ *   издателю, а не растет без предела) и dead-letter в {@link #DEAD_LETTER_EXCHANGE};
+ * - очереди задержки повторов {@code <queue>.retry.<delay>ms}: сообщение лежит там TTL
+ *   и возвращается в основную очередь через default exchange. Уровень выбирает consumer
+ *   по заголовку {@link #RETRY_COUNT_HEADER};
+ * - parking lot {@code <queue>.parking}: сюда попадают отклоненные (reject без requeue)
+ *   сообщения и, для quorum-очередей, превысившие delivery-limit.
+ *
+ * Партиционированная очередь — N очередей {@code <queue>.p<i>} за consistent-hash exchange
+ * {@code <routing key>.hash} (плагин rabbitmq_consistent_hash_exchange), хеш по заголовку
+ * {@link OrderEventMessageConverter#ORDER_ID_HEADER}. Все события заказа попадают в одну
+ * партицию, а single-active-consumer оставляет у партиции одного потребителя — порядок
+ * событий заказа сохраняется, партиции обрабатываются параллельно. При N = 1 — обычная
+ * очередь {@code <queue>} без плагина.
+ *
+ * Имена очередей задержки включают задержку: TTL существующей очереди изменить нельзя,
+ * новая задержка — новая очередь.
+ */
+public class OrderQueueTopology {
+    public static final String DEAD_LETTER_EXCHANGE = "order.dlx";
+    public static final String RETRY_COUNT_HEADER = OrderEventRetryRouter.RETRY_COUNT_HEADER;
+
+    private final TopicExchange exchange;
+    private final boolean quorum;
+    private final long maxLength;
+    private final long parkingMaxLength;
+    private final List<Long> retryDelaysMs;
+    private final int deliveryLimit;
+    // основная очередь -> routing key в order.exchange и число партиций
+    private final Map<String, Route> queues = new LinkedHashMap<>();
+
+    public OrderQueueTopology(TopicExchange exchange, boolean quorum, long maxLength, long parkingMaxLength,
+                              List<Long> retryDelaysMs, int deliveryLimit) {
+        this.exchange = exchange;
+        this.quorum = quorum;
+        this.maxLength = maxLength;
+        this.parkingMaxLength = parkingMaxLength;
+        this.retryDelaysMs = List.copyOf(retryDelaysMs);
+        this.deliveryLimit = deliveryLimit;
+    }
+
+    public OrderQueueTopology queue(String name, String routingKey) {
+        queues.put(name, new Route(routingKey, 1));
+        return this;
+    }
+
+    public OrderQueueTopology partitionedQueue(String name, String routingKey, int partitions) {
+        queues.put(name, new Route(routingKey, Math.max(partitions, 1)));
+        return this;
+    }
+
+    // Все физические очереди, из которых читают consumer'ы (партиции — отдельно)
+    public List<String> getQueues() {
+        List<String> names = new ArrayList<>();
+        queues.forEach((name, route) -> names.addAll(route.queueNames(name)));
+        return names;
+    }
+
+    public boolean isManaged(String queue) {
+        return getQueues().contains(queue);
+    }
+
+    public static String parkingQueue(String queue) {
+        return queue + ".parking";
+    }
+
+    public static String retryQueue(String queue, long delayMs) {
+        return OrderEventRetryRouter.retryQueue(queue, delayMs);
+    }
+
+    public static String partitionQueue(String queue, int partition) {
+        return queue + ".p" + partition;
+    }
+
+    public Declarables declarables() {
+        DirectExchange deadLetterExchange = new DirectExchange(DEAD_LETTER_EXCHANGE);
+        List<Declarable> declarables = new ArrayList<>();
+        declarables.add(deadLetterExchange);
+        queues.forEach((name, route) -> {
+            if (route.partitions() == 1) {
+                Queue queue = declareQueue(declarables, deadLetterExchange, name, false);
+                declarables.add(BindingBuilder.bind(queue).to(exchange).with(route.routingKey()));
+                return;
+            }
+            CustomExchange hashExchange = new CustomExchange(route.routingKey() + ".hash", "x-consistent-hash",
+                    true, false, Map.of("hash-header", OrderEventMessageConverter.ORDER_ID_HEADER));
+            declarables.add(hashExchange);
+            declarables.add(BindingBuilder.bind(hashExchange).to(exchange).with(route.routingKey()));
+            for (String partition : route.queueNames(name)) {
+                Queue queue = declareQueue(declarables, deadLetterExchange, partition, true);
+                // Ключ привязки — вес партиции в кольце хешей
+                declarables.add(BindingBuilder.bind(queue).to(hashExchange).with("1").noargs());
+            }
+        });
+        return new Declarables(declarables);
+    }
+
+    private Queue declareQueue(List<Declarable> declarables, DirectExchange deadLetterExchange,
+                               String name, boolean singleActiveConsumer) {
+        QueueBuilder builder = redelivered(durable(name, maxLength))
+                .deadLetterExchange(DEAD_LETTER_EXCHANGE)
+                .deadLetterRoutingKey(parkingQueue(name));
+        if (singleActiveConsumer) {
+            builder.singleActiveConsumer();
+        }
+        Queue queue = builder.build();
+        declarables.add(queue);
+
+        for (long delayMs : retryDelaysMs) {
+            // Истекшее сообщение возвращается в основную очередь через default exchange
+            declarables.add(redelivered(durable(retryQueue(name, delayMs), maxLength))
+                    .ttl((int) delayMs)
+                    .deadLetterExchange("")
+                    .deadLetterRoutingKey(name)
+                    .build());
+        }
+
+        // Без delivery-limit: replay возвращает неотправленное обратно (nack с requeue),
+        // и сообщение не должно пропасть после нескольких неудачных попыток
+        Queue parking = durable(parkingQueue(name), parkingMaxLength).build();
+        declarables.add(parking);
+        declarables.add(BindingBuilder.bind(parking).to(deadLetterExchange).with(parkingQueue(name)));
+        return queue;
+    }
+
+    private QueueBuilder durable(String name, long length) {
+        QueueBuilder builder = QueueBuilder.durable(name)
+                .maxLength(length)
+                .overflow(QueueBuilder.Overflow.rejectPublish);
+        if (quorum) {
+            builder.quorum();
+        }
+        return builder;
+    }
+
+    // Очереди с dead-letter exchange (основные и задержки)
+    private QueueBuilder redelivered(QueueBuilder builder) {
+        if (quorum) {
+            // Повторно доставленное (requeue) сообщение после delivery-limit уходит в parking lot;
+            // at-least-once — dead-letter с подтверждением, требует reject-publish
+            builder.deliveryLimit(deliveryLimit)
+                    .withArgument("x-dead-letter-strategy", "at-least-once");
+        }
+        return builder;
+    }
+
+    private record Route(String routingKey, int partitions) {
+        List<String> queueNames(String name) {
+            if (partitions == 1) {
+                return List.of(name);
+            }
+            List<String> names = new ArrayList<>(partitions);
+            for (int i = 0; i < partitions; i++) {
+                names.add(partitionQueue(name, i));
+            }
+            return names;
+        }
+    }
+}
@@ -6,7 +6,12 @@ import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Entity
 @Table(name = "orders")
@@ -34,6 +39,11 @@ public class Order {
     @Column(nullable = false)
     private Integer totalPrice;
 
+    // Меняется при каждом переходе статуса, см. OrderRepository.transitionStatus
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     // НОВЫЕ ПОЛЯ для контактной информации
     @Column(name = "customer_email", length = 255)
     private String customerEmail;
@@ -57,6 +67,44 @@ public class Order {
         PREPARING,
         OUT_FOR_DELIVERY,
         DELIVERED,
-        CANCELLED
+        CANCELLED;
+
+        // Таблица переходов: на шаг вперед по жизненному циклу или отмена до доставки.
+        // DELIVERED и CANCELLED конечные
+        private static final Map<OrderStatus, Set<OrderStatus>> NEXT = new EnumMap<>(OrderStatus.class);
+        private static final Map<OrderStatus, Set<OrderStatus>> PREVIOUS = new EnumMap<>(OrderStatus.class);
+
+        static {
+            NEXT.put(PENDING, EnumSet.of(CONFIRMED, CANCELLED));
+            NEXT.put(CONFIRMED, EnumSet.of(PREPARING, CANCELLED));
+            NEXT.put(PREPARING, EnumSet.of(OUT_FOR_DELIVERY, CANCELLED));
+            NEXT.put(OUT_FOR_DELIVERY, EnumSet.of(DELIVERED, CANCELLED));
+            NEXT.put(DELIVERED, EnumSet.noneOf(OrderStatus.class));
+            NEXT.put(CANCELLED, EnumSet.noneOf(OrderStatus.class));
+
+            for (OrderStatus status : values()) {
+                EnumSet<OrderStatus> previous = EnumSet.noneOf(OrderStatus.class);
+                NEXT.forEach((from, to) -> {
+                    if (to.contains(status)) {
+                        previous.add(from);
+                    }
+                });
+                PREVIOUS.put(status, Collections.unmodifiableSet(previous));
+                NEXT.put(status, Collections.unmodifiableSet(NEXT.get(status)));
+            }
+        }
+
+        public boolean canTransitionTo(OrderStatus target) {
+            return NEXT.get(this).contains(target);
+        }
+
+        // Статусы, из которых можно перейти в этот
+        public Set<OrderStatus> allowedPredecessors() {
+            return PREVIOUS.get(this);
+        }
+
+        public boolean isFinal() {
+            return NEXT.get(this).isEmpty();
+        }
     }
 }
\ No newline at end of file
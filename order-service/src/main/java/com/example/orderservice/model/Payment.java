@@ -3,6 +3,8 @@ package com.example.orderservice.model;
 import jakarta.persistence.*;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Table(name = "payment")
 @Data
@@ -23,6 +25,16 @@ public class Payment {
     @Enumerated(EnumType.STRING)
     private PaymentStatus status;
 
+    // Заполняются при обработке платежа (PaymentService)
+    @Column(name = "transaction_id", length = 100)
+    private String transactionId;
+
+    @Column(name = "failure_reason")
+    private String failureReason;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
     public enum PaymentMethod {
         CREDIT_CARD, PAYPAL, CASH_ON_DELIVERY
     }
@@ -5,8 +5,11 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
@@ -34,4 +37,73 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     List<Order> findByUserIdAndOrderDateBetween(@Param("userId") Long userId,
                                                 @Param("startDate") java.time.LocalDateTime startDate,
                                                 @Param("endDate") java.time.LocalDateTime endDate);
-}
\ No newline at end of file
+
+    /**
+     * Переход статуса одним запросом: строка меняется, только если текущий статус входит
+     * в allowedStatuses. Прежний статус читается в том же запросе под блокировкой строки,
+     * поэтому из двух параллельных переходов проходит один, второй получает пустой результат.
+     * UPDATE ... RETURNING выполняется как выборка, поэтому без @Modifying.
+     */
+    @Transactional
+    @Query(value = """
+            WITH prev AS (SELECT id, status FROM orders WHERE id = :id FOR UPDATE)
+            UPDATE orders o SET status = :status, version = o.version + 1
+            FROM prev
+            WHERE o.id = prev.id AND prev.status IN (:allowedStatuses)
+            RETURNING o.id AS "id", o.user_id AS "userId", o.restaurant_id AS "restaurantId",
+                      o.status AS "status", prev.status AS "previousStatus", o.version AS "version"
+            """, nativeQuery = true)
+    Optional<OrderStatusTransition> transitionStatus(@Param("id") Long id,
+                                                     @Param("status") String status,
+                                                     @Param("allowedStatuses") Collection<String> allowedStatuses);
+
+    @Query("SELECT o.status FROM Order o WHERE o.id = :id")
+    Optional<Order.OrderStatus> findStatusById(@Param("id") Long id);
+
+    /**
+     * Групповой вариант transitionStatus: все заказы из ids одним запросом. Строки
+     * блокируются в порядке id, чтобы параллельные групповые переходы не взаимоблокировались.
+     * Возвращаются только измененные заказы.
+     */
+    @Transactional
+    @Query(value = """
+            WITH prev AS (SELECT id, status FROM orders WHERE id IN (:ids) ORDER BY id FOR UPDATE)
+            UPDATE orders o SET status = :status, version = o.version + 1
+            FROM prev
+            WHERE o.id = prev.id AND prev.status IN (:allowedStatuses)
+            RETURNING o.id AS "id", o.user_id AS "userId", o.restaurant_id AS "restaurantId",
+                      o.status AS "status", prev.status AS "previousStatus", o.version AS "version"
+            """, nativeQuery = true)
+    List<OrderStatusTransition> transitionStatuses(@Param("ids") Collection<Long> ids,
+                                                   @Param("status") String status,
+                                                   @Param("allowedStatuses") Collection<String> allowedStatuses);
+
+    @Query("SELECT o.id AS id, o.status AS status FROM Order o WHERE o.id IN :ids")
+    List<OrderStatusView> findStatusesByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Отмена пачки PENDING-заказов старше cutoff (по idx_orders_pending_order_date).
+     * SKIP LOCKED: строки, занятые другим экземпляром или параллельным переходом статуса,
+     * пропускаются, так что несколько экземпляров разбирают разные пачки.
+     * Оплаченные заказы не отменяются: их подтвердит PaymentResultListener; списание,
+     * завершившееся уже после отмены, PaymentService возвращает.
+     */
+    @Transactional
+    @Query(value = """
+            WITH stale AS (
+                SELECT id, status FROM orders
+                WHERE status = 'PENDING' AND order_date < :cutoff
+                  AND NOT EXISTS (SELECT 1 FROM payment p
+                                  WHERE p.order_id = orders.id AND p.status = 'COMPLETED')
+                ORDER BY order_date
+                LIMIT :limit
+                FOR UPDATE SKIP LOCKED)
+            UPDATE orders o SET status = 'CANCELLED', version = o.version + 1
+            FROM stale
+            WHERE o.id = stale.id
+            RETURNING o.id AS "id", o.user_id AS "userId", o.restaurant_id AS "restaurantId",
+                      o.status AS "status", stale.status AS "previousStatus", o.version AS "version"
+            """, nativeQuery = true)
+    List<OrderStatusTransition> cancelStalePending(@Param("cutoff") java.time.LocalDateTime cutoff,
+                                                   @Param("limit") int limit);
+}
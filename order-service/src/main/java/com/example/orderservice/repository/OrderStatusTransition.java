@@ -0,0 +1,11 @@
+package com.example.orderservice.repository;
+
+// Результат условного UPDATE статуса: заказ после перехода и статус до него
+public interface OrderStatusTransition {
+    Long getId();
+    Long getUserId();
+    Long getRestaurantId();
+    String getStatus();
+    String getPreviousStatus();
+    Long getVersion();
+}
@@ -0,0 +1,9 @@
+package com.example.orderservice.repository;
+
+import com.example.orderservice.model.Order;
+
+// Текущий статус заказа без загрузки сущности
+public interface OrderStatusView {
+    Long getId();
+    Order.OrderStatus getStatus();
+}
@@ -2,11 +2,44 @@ package com.example.orderservice.repository;
 
 import com.example.orderservice.model.Payment;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByOrderId(Long orderId);
-}
\ No newline at end of file
+
+    /**
+     * Фиксирует результат платежа, только если он еще PENDING: повторная доставка
+     * события или параллельный обработчик не перезапишут результат (вернется 0).
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.status = :status, p.transactionId = :transactionId, " +
+            "p.failureReason = :failureReason, p.processedAt = :processedAt " +
+            "WHERE p.id = :id AND p.status = :expectedStatus")
+    int updateResult(@Param("id") Long id,
+                     @Param("expectedStatus") Payment.PaymentStatus expectedStatus,
+                     @Param("status") Payment.PaymentStatus status,
+                     @Param("transactionId") String transactionId,
+                     @Param("failureReason") String failureReason,
+                     @Param("processedAt") LocalDateTime processedAt);
+
+    // Незавершенные платежи отмененных заказов: обработчик платежей их больше не возьмет
+    @Modifying
+    @Transactional
+    @Query("UPDATE Payment p SET p.status = :status, p.failureReason = :failureReason, p.processedAt = :processedAt " +
+            "WHERE p.order.id IN :orderIds AND p.status = :expectedStatus")
+    int updatePendingByOrderIds(@Param("orderIds") Collection<Long> orderIds,
+                                @Param("expectedStatus") Payment.PaymentStatus expectedStatus,
+                                @Param("status") Payment.PaymentStatus status,
+                                @Param("failureReason") String failureReason,
+                                @Param("processedAt") LocalDateTime processedAt);
+}
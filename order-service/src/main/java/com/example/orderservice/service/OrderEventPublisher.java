@@ -1,71 +1,114 @@
 package com.example.orderservice.service;
 
 import com.example.orderservice.dto.OrderCreatedEvent;
+import com.example.orderservice.dto.OrderStatusEvent;
+import com.example.orderservice.dto.PaymentEvent;
+import com.example.orderservice.messaging.BatchingEventPublisher;
 import com.example.orderservice.model.Order;
+import com.example.orderservice.model.Payment;
+import com.example.orderservice.repository.OrderStatusTransition;
 import lombok.RequiredArgsConstructor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.util.List;
+
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class OrderEventPublisher {
 
-    private final RabbitTemplate rabbitTemplate;
+    private final BatchingEventPublisher eventPublisher;
 
     // Константы для RabbitMQ (дублируем здесь для удобства)
     private static final String ORDER_EXCHANGE = "order.exchange";
     private static final String ORDER_CREATED_ROUTING_KEY = "order.created";
     private static final String ORDER_STATUS_ROUTING_KEY = "order.status";
+    private static final String PAYMENT_COMPLETED_ROUTING_KEY = "payment.completed";
+    private static final String PAYMENT_FAILED_ROUTING_KEY = "payment.failed";
 
     /**
      * Публикует событие создания нового заказа
      */
     public void publishOrderCreatedEvent(Order order) {
         OrderCreatedEvent event = OrderCreatedEvent.fromOrder(order);
-        rabbitTemplate.convertAndSend(
-                ORDER_EXCHANGE,
-                ORDER_CREATED_ROUTING_KEY,
-                event
-        );
-        System.out.println("Published order created event: " + event);
+        eventPublisher.publish(ORDER_EXCHANGE, ORDER_CREATED_ROUTING_KEY, event);
+        log.debug("Published order created event: {}", event);
     }
 
     /**
      * Публикует событие изменения статуса заказа
      */
-    public void publishOrderStatusEvent(Long orderId, Order.OrderStatus newStatus) {
-        String message = String.format("Order %d status changed to %s", orderId, newStatus);
-        rabbitTemplate.convertAndSend(
-                ORDER_EXCHANGE,
-                ORDER_STATUS_ROUTING_KEY,
-                message
-        );
-        System.out.println("Published order status event: " + message);
+    public void publishOrderStatusEvent(Order order, Order.OrderStatus previousStatus) {
+        publishStatus(OrderStatusEvent.fromOrder(order, previousStatus, null));
     }
 
     /**
      * Публикует событие отмены заказа
      */
-    public void publishOrderCancelledEvent(Long orderId, String reason) {
-        String message = String.format("Order %d cancelled. Reason: %s", orderId, reason);
-        rabbitTemplate.convertAndSend(
-                ORDER_EXCHANGE,
-                ORDER_STATUS_ROUTING_KEY,
-                message
-        );
-        System.out.println("Published order cancelled event: " + message);
+    public void publishOrderCancelledEvent(Order order, Order.OrderStatus previousStatus, String reason) {
+        publishStatus(OrderStatusEvent.fromOrder(order, previousStatus, reason));
+    }
+
+    /**
+     * Публикует событие перехода статуса, выполненного OrderRepository.transitionStatus,
+     * после коммита текущей транзакции
+     */
+    public void publishStatusTransition(OrderStatusTransition transition, String reason) {
+        OrderStatusEvent event = OrderStatusEvent.fromTransition(transition, reason);
+        afterCommit("order status event " + event.getOrderId(), () -> publishStatus(event));
     }
 
     /**
-     * Публикует событие завершения заказа
+     * Публикует события группового перехода статусов одной пачкой после коммита текущей транзакции
      */
-    public void publishOrderCompletedEvent(Long orderId) {
-        String message = String.format("Order %d completed successfully", orderId);
-        rabbitTemplate.convertAndSend(
-                ORDER_EXCHANGE,
-                ORDER_STATUS_ROUTING_KEY,
-                message
-        );
-        System.out.println("Published order completed event: " + message);
+    public void publishStatusTransitions(List<OrderStatusTransition> transitions, String reason) {
+        List<OrderStatusEvent> events = transitions.stream()
+                .map(transition -> OrderStatusEvent.fromTransition(transition, reason))
+                .toList();
+        afterCommit(events.size() + " order status events", () -> {
+            eventPublisher.publishAll(ORDER_EXCHANGE, ORDER_STATUS_ROUTING_KEY, events);
+            log.debug("Published {} order status events", events.size());
+        });
+    }
+
+    /**
+     * Публикует итог обработки платежа: payment.completed или payment.failed
+     */
+    public void publishPaymentEvent(PaymentEvent event) {
+        String routingKey = event.getStatus() == Payment.PaymentStatus.COMPLETED
+                ? PAYMENT_COMPLETED_ROUTING_KEY
+                : PAYMENT_FAILED_ROUTING_KEY;
+        eventPublisher.publish(ORDER_EXCHANGE, routingKey, event);
+        log.debug("Published payment event: {}", event);
+    }
+
+    /**
+     * Внутри транзакции публикация откладывается до коммита: подписчики не получат событие
+     * об изменении, которое потом откатится. Ошибка публикации после коммита только логируется;
+     * без транзакции публикация сразу и ошибка уходит вызывающему.
+     */
+    private void afterCommit(String description, Runnable publish) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    publish.run();
+                } catch (RuntimeException e) {
+                    log.warn("Could not publish {} after commit: {}", description, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private void publishStatus(OrderStatusEvent event) {
+        eventPublisher.publish(ORDER_EXCHANGE, ORDER_STATUS_ROUTING_KEY, event);
+        log.debug("Published order status event: {}", event);
     }
-}
\ No newline at end of file
+}
@@ -1,21 +1,30 @@
 package com.example.orderservice.service;
 
+import com.example.orderservice.dto.BulkStatusUpdateResult;
 import com.example.orderservice.dto.CreateOrderRequest;
 import com.example.orderservice.dto.OrderResponseDto;
+import com.example.orderservice.exception.OrderStatusConflictException;
 import com.example.orderservice.model.Order;
 import com.example.orderservice.model.OrderItem;
 import com.example.orderservice.model.Payment;
 import com.example.orderservice.repository.OrderRepository;
 import com.example.orderservice.repository.OrderItemRepository;
+import com.example.orderservice.repository.OrderStatusTransition;
 import com.example.orderservice.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -23,12 +32,17 @@ import java.util.stream.Collectors;
 @Slf4j
 public class OrderService {
 
+    private static final String ORDER_CANCELLED_REASON = "Order cancelled";
+
     private final OrderRepository orderRepository;
     private final OrderItemRepository orderItemRepository;
     private final PaymentRepository paymentRepository;
     private final CartService cartService;
     private final OrderEventPublisher orderEventPublisher;
 
+    @Value("${orders.bulk-status.max-orders:500}")
+    private int maxBulkStatusOrders;
+
     @Transactional
     public OrderResponseDto placeOrder(Long userId, CreateOrderRequest request) {
         log.info("📦 Placing order for user {} from restaurant {}", userId, request.getRestaurantId());
@@ -172,33 +186,13 @@ public class OrderService {
     public OrderResponseDto updateOrderStatus(Long orderId, Order.OrderStatus newStatus) {
         log.info("🔄 Updating order {} status to {}", orderId, newStatus);
 
-        try {
-            Order order = orderRepository.findById(orderId)
-                    .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
-
-            // Проверяем, можно ли обновить статус
-            if (order.getStatus() == Order.OrderStatus.DELIVERED ||
-                    order.getStatus() == Order.OrderStatus.CANCELLED) {
-                throw new RuntimeException("Cannot update status for completed or cancelled order");
-            }
-
-            order.setStatus(newStatus);
-            Order updatedOrder = orderRepository.save(order);
+        OrderStatusTransition transition = transitionStatus(orderId, newStatus);
 
-            // Публикуем событие об изменении статуса
-            try {
-                orderEventPublisher.publishOrderStatusEvent(orderId, newStatus);
-                log.info("📢 Order status event published for order {}", orderId);
-            } catch (Exception e) {
-                log.warn("⚠️ Could not publish status event: {}", e.getMessage());
-            }
+        // Событие об изменении статуса уходит после коммита
+        orderEventPublisher.publishStatusTransition(transition, null);
 
-            log.info("✅ Order {} status updated to {}", orderId, newStatus);
-            return convertToDto(updatedOrder);
-        } catch (Exception e) {
-            log.error("Error updating order {} status: {}", orderId, e.getMessage());
-            throw new RuntimeException("Failed to update order status: " + e.getMessage());
-        }
+        log.info("✅ Order {} status updated to {}", orderId, newStatus);
+        return loadDto(orderId);
     }
 
     @Transactional
@@ -225,36 +219,142 @@ public class OrderService {
     public OrderResponseDto cancelOrder(Long orderId) {
         log.info("❌ Cancelling order: {}", orderId);
 
-        try {
-            Order order = orderRepository.findById(orderId)
-                    .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        OrderStatusTransition transition = transitionStatus(orderId, Order.OrderStatus.CANCELLED);
 
-            // Проверяем, можно ли отменить заказ
-            if (order.getStatus() == Order.OrderStatus.DELIVERED) {
-                throw new RuntimeException("Cannot cancel delivered order");
-            }
+        // Событие об отмене уходит после коммита
+        orderEventPublisher.publishStatusTransition(transition, "User cancelled");
 
-            if (order.getStatus() == Order.OrderStatus.CANCELLED) {
-                throw new RuntimeException("Order is already cancelled");
-            }
+        log.info("✅ Order {} cancelled", orderId);
+        return loadDto(orderId);
+    }
 
-            order.setStatus(Order.OrderStatus.CANCELLED);
-            Order cancelledOrder = orderRepository.save(order);
+    /**
+     * Подтверждение заказа после успешной оплаты: только из PENDING, поэтому повторное
+     * событие или заказ, уже отмененный или подтвержденный рестораном, ничего не меняют.
+     */
+    @Transactional
+    public boolean confirmPaidOrder(Long orderId) {
+        Optional<OrderStatusTransition> transition = orderRepository.transitionStatus(orderId,
+                Order.OrderStatus.CONFIRMED.name(), List.of(Order.OrderStatus.PENDING.name()));
+        if (transition.isEmpty()) {
+            log.info("Paid order {} is no longer PENDING, not confirmed", orderId);
+            return false;
+        }
+        orderEventPublisher.publishStatusTransition(transition.get(), "Payment completed");
+        log.info("✅ Order {} confirmed after payment", orderId);
+        return true;
+    }
 
-            // Публикуем событие об отмене заказа
-            try {
-                orderEventPublisher.publishOrderCancelledEvent(orderId, "User cancelled");
-                log.info("📢 Order cancelled event published for order {}", orderId);
-            } catch (Exception e) {
-                log.warn("⚠️ Could not publish cancelled event: {}", e.getMessage());
+    /**
+     * Перевод группы заказов в один статус: один UPDATE на всю группу, один запрос
+     * для разбора отказов и одна пачка событий. Заказы, которые нельзя перевести,
+     * не мешают остальным — результат по каждому заказу возвращается отдельно.
+     */
+    @Transactional
+    public BulkStatusUpdateResult updateOrderStatuses(List<Long> orderIds, String status, String reason) {
+        if (status == null || status.isBlank()) {
+            throw new IllegalArgumentException("Status must not be empty");
+        }
+        Order.OrderStatus newStatus = Order.OrderStatus.valueOf(status.trim().toUpperCase());
+        List<Long> ids = orderIds == null ? List.of() : orderIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        if (ids.isEmpty()) {
+            throw new IllegalArgumentException("No order ids given");
+        }
+        if (ids.size() > maxBulkStatusOrders) {
+            throw new IllegalArgumentException("Too many orders in one request: " + ids.size()
+                    + " (max " + maxBulkStatusOrders + ")");
+        }
+        List<String> allowedStatuses = newStatus.allowedPredecessors().stream()
+                .map(Enum::name)
+                .toList();
+        if (allowedStatuses.isEmpty()) {
+            throw new OrderStatusConflictException("Order status cannot be changed to " + newStatus);
+        }
+        log.info("🔄 Updating {} orders to status {}", ids.size(), newStatus);
+
+        List<OrderStatusTransition> transitions =
+                orderRepository.transitionStatuses(ids, newStatus.name(), allowedStatuses);
+        Map<Long, OrderStatusTransition> updated = transitions.stream()
+                .collect(Collectors.toMap(OrderStatusTransition::getId, Function.identity()));
+
+        Map<Long, Order.OrderStatus> rejectedStatuses = new HashMap<>();
+        if (updated.size() < ids.size()) {
+            List<Long> rejectedIds = ids.stream()
+                    .filter(id -> !updated.containsKey(id))
+                    .toList();
+            orderRepository.findStatusesByIdIn(rejectedIds)
+                    .forEach(view -> rejectedStatuses.put(view.getId(), view.getStatus()));
+        }
+
+        List<BulkStatusUpdateResult.OrderOutcome> outcomes = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            OrderStatusTransition transition = updated.get(id);
+            if (transition != null) {
+                outcomes.add(new BulkStatusUpdateResult.OrderOutcome(id, BulkStatusUpdateResult.Outcome.UPDATED,
+                        transition.getPreviousStatus(), transition.getStatus()));
+                continue;
             }
+            Order.OrderStatus currentStatus = rejectedStatuses.get(id);
+            outcomes.add(currentStatus == null
+                    ? new BulkStatusUpdateResult.OrderOutcome(id, BulkStatusUpdateResult.Outcome.NOT_FOUND, null, null)
+                    : new BulkStatusUpdateResult.OrderOutcome(id, BulkStatusUpdateResult.Outcome.CONFLICT,
+                            null, currentStatus.name()));
+        }
 
-            log.info("✅ Order {} cancelled", orderId);
-            return convertToDto(cancelledOrder);
-        } catch (Exception e) {
-            log.error("Error cancelling order {}: {}", orderId, e.getMessage());
-            throw new RuntimeException("Failed to cancel order: " + e.getMessage());
+        if (newStatus == Order.OrderStatus.CANCELLED && !transitions.isEmpty()) {
+            closePendingPayments(transitions.stream().map(OrderStatusTransition::getId).toList(),
+                    reason == null || reason.isBlank() ? ORDER_CANCELLED_REASON : reason);
         }
+
+        // События уходят одной пачкой после коммита
+        if (!transitions.isEmpty()) {
+            orderEventPublisher.publishStatusTransitions(transitions, reason);
+        }
+
+        log.info("✅ Bulk status update to {}: {} updated, {} rejected",
+                newStatus, transitions.size(), ids.size() - transitions.size());
+        return new BulkStatusUpdateResult(newStatus.name(), transitions.size(),
+                ids.size() - transitions.size(), outcomes);
+    }
+
+    /**
+     * Переход статуса одним условным UPDATE по таблице переходов Order.OrderStatus.
+     * Если строка не изменилась, отдельным запросом выясняется причина: заказа нет
+     * или он уже в статусе, из которого переход запрещен.
+     */
+    private OrderStatusTransition transitionStatus(Long orderId, Order.OrderStatus newStatus) {
+        List<String> allowedStatuses = newStatus.allowedPredecessors().stream()
+                .map(Enum::name)
+                .toList();
+        if (allowedStatuses.isEmpty()) {
+            throw new OrderStatusConflictException("Order status cannot be changed to " + newStatus);
+        }
+
+        Optional<OrderStatusTransition> transition =
+                orderRepository.transitionStatus(orderId, newStatus.name(), allowedStatuses);
+        if (transition.isPresent()) {
+            if (newStatus == Order.OrderStatus.CANCELLED) {
+                closePendingPayments(List.of(orderId), ORDER_CANCELLED_REASON);
+            }
+            return transition.get();
+        }
+
+        Order.OrderStatus currentStatus = orderRepository.findStatusById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+        log.warn("Rejected status change of order {}: {} -> {}", orderId, currentStatus, newStatus);
+        throw new OrderStatusConflictException(
+                "Cannot change order status from " + currentStatus + " to " + newStatus);
+    }
+
+    // Незавершенный платеж отмененного заказа закрывается в той же транзакции, как у
+    // StalePendingOrderSweeper: обработчик платежей его не спишет, а списание, уже идущее
+    // в шлюзе, PaymentService вернет
+    private void closePendingPayments(List<Long> orderIds, String reason) {
+        paymentRepository.updatePendingByOrderIds(orderIds, Payment.PaymentStatus.PENDING,
+                Payment.PaymentStatus.FAILED, reason, LocalDateTime.now());
     }
 
     @Transactional(readOnly = true)
@@ -360,10 +460,17 @@ public class OrderService {
         return dto;
     }
 
-    public void publishOrderStatusEvent(Long orderId, Order.OrderStatus newStatus) {
+    // Полный ответ после смены статуса: UPDATE возвращает только ключевые поля
+    private OrderResponseDto loadDto(Long orderId) {
+        return orderRepository.findById(orderId)
+                .map(this::convertToDto)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + orderId));
+    }
+
+    public void publishOrderStatusEvent(Order order, Order.OrderStatus previousStatus) {
         try {
-            orderEventPublisher.publishOrderStatusEvent(orderId, newStatus);
-            log.info("Published order status event: Order {} -> {}", orderId, newStatus);
+            orderEventPublisher.publishOrderStatusEvent(order, previousStatus);
+            log.info("Published order status event: Order {} -> {}", order.getId(), order.getStatus());
         } catch (Exception e) {
             log.error("Failed to publish order status event: {}", e.getMessage());
         }
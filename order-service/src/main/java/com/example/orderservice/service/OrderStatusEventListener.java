@@ -0,0 +1,22 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderStatusEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+// Все изменения статусов из order.status (очередь экземпляра) передаются открытым SSE-потокам
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderStatusEventListener {
+
+    private final OrderStatusPushService orderStatusPushService;
+
+    @RabbitListener(queues = "#{orderStatusPushQueue.name}")
+    public void onOrderStatusEvent(OrderStatusEvent event) {
+        log.debug("Order {} status event {} for user {}", event.getOrderId(), event.getStatus(), event.getUserId());
+        orderStatusPushService.publish(event);
+    }
+}
@@ -0,0 +1,400 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.OrderStatusEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Push изменений статуса заказов по SSE вместо опроса GET /api/orders/{orderId}.
+ *
+ * Для каждого пользователя в памяти хранится канал: последние history-size событий
+ * (для возобновления по Last-Event-ID) и открытые потоки. У каждого потока своя
+ * ограниченная очередь отправки: медленный клиент не задерживает остальных, а при
+ * переполнении поток закрывается и клиент переподключается с Last-Event-ID.
+ *
+ * Запись в сокет блокирующая: отправка, зависшая дольше send-timeout-ms, закрывает поток,
+ * а пул отправки получает замену занятому потоку (до max-send-threads), чтобы несколько
+ * зависших клиентов не остановили доставку остальным. Сам зависший поток освобождается
+ * по таймауту записи Tomcat.
+ */
+@Slf4j
+@Service
+public class OrderStatusPushService {
+    private static final String STATUS_EVENT = "order-status";
+    // Событие не найдено в истории — клиенту нужно один раз перечитать заказы через REST
+    private static final String RESYNC_EVENT = "resync";
+
+    private final long streamTimeoutMs;
+    private final long reconnectDelayMs;
+    private final int historySize;
+    private final int maxPendingPerStream;
+    private final int maxStreamsPerUser;
+    private final int maxChannels;
+    private final long channelIdleTtlMs;
+    private final long sendTimeoutMs;
+    private final int sendThreads;
+    private final int maxSendThreads;
+
+    private final Map<Long, UserChannel> channels = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService scheduler;
+    private final ThreadPoolExecutor senders;
+    // Отправки, зависшие дольше send-timeout-ms: за каждую пул получает дополнительный поток
+    private final AtomicInteger stalledSends = new AtomicInteger();
+
+    public OrderStatusPushService(@Value("${order-events.stream-timeout-ms:1800000}") long streamTimeoutMs,
+                                  @Value("${order-events.reconnect-delay-ms:3000}") long reconnectDelayMs,
+                                  @Value("${order-events.heartbeat-interval-ms:15000}") long heartbeatIntervalMs,
+                                  @Value("${order-events.history-size:32}") int historySize,
+                                  @Value("${order-events.max-pending-per-stream:64}") int maxPendingPerStream,
+                                  @Value("${order-events.max-streams-per-user:5}") int maxStreamsPerUser,
+                                  @Value("${order-events.max-channels:100000}") int maxChannels,
+                                  @Value("${order-events.channel-idle-ttl-ms:600000}") long channelIdleTtlMs,
+                                  @Value("${order-events.send-timeout-ms:10000}") long sendTimeoutMs,
+                                  @Value("${order-events.send-threads:4}") int sendThreads,
+                                  @Value("${order-events.max-send-threads:64}") int maxSendThreads) {
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+        this.historySize = historySize;
+        this.maxPendingPerStream = maxPendingPerStream;
+        this.maxStreamsPerUser = maxStreamsPerUser;
+        this.maxChannels = maxChannels;
+        this.channelIdleTtlMs = channelIdleTtlMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.sendThreads = sendThreads;
+        this.maxSendThreads = Math.max(maxSendThreads, sendThreads);
+
+        this.senders = new ThreadPoolExecutor(sendThreads, sendThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), daemonThreads("order-events-send-"));
+        this.senders.allowCoreThreadTimeOut(true);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("order-events-"));
+        scheduler.scheduleAtFixedRate(this::heartbeatAndEvict,
+                heartbeatIntervalMs, heartbeatIntervalMs, TimeUnit.MILLISECONDS);
+        long stallCheckMs = Math.max(sendTimeoutMs / 2, 100);
+        scheduler.scheduleAtFixedRate(this::closeStalledStreams, stallCheckMs, stallCheckMs, TimeUnit.MILLISECONDS);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        channels.values().forEach(channel -> channel.streams.forEach(Stream::close));
+    }
+
+    /**
+     * Открывает поток пользователя. Если передан lastEventId, сначала досылаются
+     * пропущенные события из истории.
+     */
+    public SseEmitter subscribe(Long userId, String lastEventId) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Stream evicted = null;
+        while (true) {
+            UserChannel channel = channels.computeIfAbsent(userId, id -> new UserChannel());
+            synchronized (channel) {
+                if (channel.removed) {
+                    continue;
+                }
+                Stream stream = new Stream(emitter, channel);
+                emitter.onCompletion(stream::detach);
+                emitter.onTimeout(stream::detach);
+                emitter.onError(e -> stream.detach());
+
+                // Пропущенные события ставятся в очередь под монитором канала, до новых событий
+                channel.lastActivity = System.currentTimeMillis();
+                stream.enqueue(SseEmitter.event().reconnectTime(reconnectDelayMs).comment("connected"));
+                List<OrderStatusEvent> missed = lastEventId != null ? channel.eventsAfter(lastEventId) : List.of();
+                if (missed == null) {
+                    stream.enqueue(SseEmitter.event().name(RESYNC_EVENT).data("{}", MediaType.APPLICATION_JSON));
+                } else {
+                    missed.forEach(event -> stream.enqueue(toSse(event)));
+                }
+
+                channel.streams.add(stream);
+                if (channel.streams.size() > maxStreamsPerUser) {
+                    evicted = channel.streams.get(0);
+                }
+                break;
+            }
+        }
+        if (evicted != null) {
+            evicted.close();
+        }
+        return emitter;
+    }
+
+    public void publish(OrderStatusEvent event) {
+        if (event.getUserId() == null) {
+            return;
+        }
+        UserChannel channel = channels.get(event.getUserId());
+        if (channel == null) {
+            // История нужна для возобновления потока; без подписчиков каналы не копятся сверх лимита
+            if (channels.size() >= maxChannels) {
+                return;
+            }
+            channel = channels.computeIfAbsent(event.getUserId(), id -> new UserChannel());
+        }
+
+        // Событие сериализуется один раз для всех потоков пользователя
+        Set<ResponseBodyEmitter.DataWithMediaType> sse = toSse(event).build();
+        synchronized (channel) {
+            if (channel.removed) {
+                return;
+            }
+            channel.lastActivity = System.currentTimeMillis();
+            channel.history.addLast(event);
+            if (channel.history.size() > historySize) {
+                channel.history.removeFirst();
+            }
+            channel.streams.forEach(stream -> stream.enqueue(sse));
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSse(OrderStatusEvent event) {
+        return SseEmitter.event()
+                .id(event.getEventId())
+                .name(STATUS_EVENT)
+                .data(event, MediaType.APPLICATION_JSON);
+    }
+
+    private void heartbeatAndEvict() {
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Long, UserChannel>> iterator = channels.entrySet().iterator();
+        while (iterator.hasNext()) {
+            UserChannel channel = iterator.next().getValue();
+            synchronized (channel) {
+                if (channel.streams.isEmpty()) {
+                    if (now - channel.lastActivity > channelIdleTtlMs) {
+                        channel.removed = true;
+                        iterator.remove();
+                    }
+                    continue;
+                }
+            }
+            // Комментарий держит соединение через прокси и выявляет отключившихся клиентов
+            channel.streams.forEach(Stream::heartbeat);
+        }
+    }
+
+    private void closeStalledStreams() {
+        long now = System.currentTimeMillis();
+        channels.values().forEach(channel -> channel.streams.forEach(stream -> {
+            if (stream.markStalled(now)) {
+                log.warn("Order events stream send blocked for over {} ms, closing it", sendTimeoutMs);
+                stalledSends.incrementAndGet();
+                resizeSenders();
+                stream.close();
+            }
+        }));
+    }
+
+    // Размер пула — send-threads плюс по потоку на каждую зависшую отправку
+    private synchronized void resizeSenders() {
+        int size = Math.min(sendThreads + stalledSends.get(), maxSendThreads);
+        if (size > senders.getMaximumPoolSize()) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else if (size < senders.getMaximumPoolSize()) {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private static class UserChannel {
+        private final Deque<OrderStatusEvent> history = new ArrayDeque<>();
+        private final List<Stream> streams = new CopyOnWriteArrayList<>();
+        private long lastActivity = System.currentTimeMillis();
+        // Канал удален из map: новые подписчики создают новый канал
+        private boolean removed;
+
+        // null — события с таким id нет в истории (вытеснено или пришло до запуска экземпляра)
+        List<OrderStatusEvent> eventsAfter(String lastEventId) {
+            List<OrderStatusEvent> after = new ArrayList<>();
+            Iterator<OrderStatusEvent> descending = history.descendingIterator();
+            while (descending.hasNext()) {
+                OrderStatusEvent event = descending.next();
+                if (lastEventId.equals(event.getEventId())) {
+                    return after.reversed();
+                }
+                after.add(event);
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Открытый SSE-поток. Отправка идет в пуле order-events-send, не более одной задачи на поток,
+     * поэтому события одного потока не переупорядочиваются. send и complete у SseEmitter
+     * синхронизированы, поэтому поток с идущей отправкой завершает сама задача отправки:
+     * закрытие из другого потока не ждет зависшую запись.
+     */
+    private class Stream {
+        private final SseEmitter emitter;
+        private final UserChannel channel;
+        private final Deque<Set<ResponseBodyEmitter.DataWithMediaType>> pending = new ArrayDeque<>();
+        private boolean draining;
+        private boolean completeRequested;
+        private long sendStartedAt;
+        private boolean stalled;
+        private volatile boolean closed;
+
+        Stream(SseEmitter emitter, UserChannel channel) {
+            this.emitter = emitter;
+            this.channel = channel;
+        }
+
+        void enqueue(SseEmitter.SseEventBuilder event) {
+            enqueue(event.build());
+        }
+
+        void enqueue(Set<ResponseBodyEmitter.DataWithMediaType> event) {
+            boolean overflow = false;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (pending.size() >= maxPendingPerStream) {
+                    overflow = true;
+                } else {
+                    pending.addLast(event);
+                    if (!draining) {
+                        draining = true;
+                        senders.execute(this::drain);
+                    }
+                }
+            }
+            if (overflow) {
+                log.warn("Order events stream is too slow, closing it to let the client resume");
+                close();
+            }
+        }
+
+        void heartbeat() {
+            synchronized (this) {
+                // Данные и так идут — отдельный heartbeat не нужен
+                if (!pending.isEmpty() || draining) {
+                    return;
+                }
+            }
+            enqueue(SseEmitter.event().comment("heartbeat"));
+        }
+
+        // true — отправка идет дольше send-timeout-ms и еще не была учтена как зависшая
+        synchronized boolean markStalled(long now) {
+            if (stalled || sendStartedAt == 0 || now - sendStartedAt < sendTimeoutMs) {
+                return false;
+            }
+            stalled = true;
+            return true;
+        }
+
+        private void drain() {
+            while (true) {
+                Set<ResponseBodyEmitter.DataWithMediaType> event;
+                boolean complete;
+                synchronized (this) {
+                    event = closed ? null : pending.pollFirst();
+                    if (event == null) {
+                        draining = false;
+                        complete = completeRequested;
+                    } else {
+                        complete = false;
+                        sendStartedAt = System.currentTimeMillis();
+                    }
+                }
+                if (event == null) {
+                    if (complete) {
+                        complete();
+                    }
+                    return;
+                }
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    log.debug("Order events stream closed: {}", e.getMessage());
+                    close();
+                } finally {
+                    sendFinished();
+                }
+            }
+        }
+
+        private void sendFinished() {
+            boolean wasStalled;
+            synchronized (this) {
+                sendStartedAt = 0;
+                wasStalled = stalled;
+                stalled = false;
+            }
+            if (wasStalled) {
+                stalledSends.decrementAndGet();
+                resizeSenders();
+            }
+        }
+
+        void close() {
+            boolean completeNow;
+            synchronized (this) {
+                if (completeRequested) {
+                    return;
+                }
+                completeRequested = true;
+                closed = true;
+                pending.clear();
+                // Идущая отправка держит монитор emitter'а — завершит задача отправки
+                completeNow = !draining;
+            }
+            channel.streams.remove(this);
+            if (completeNow) {
+                complete();
+            }
+        }
+
+        private void complete() {
+            try {
+                emitter.complete();
+            } catch (RuntimeException e) {
+                log.debug("Could not complete order events stream: {}", e.getMessage());
+            }
+        }
+
+        void detach() {
+            synchronized (this) {
+                closed = true;
+                pending.clear();
+            }
+            channel.streams.remove(this);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.ParkingLotReplayResult;
+import com.example.orderservice.messaging.OrderQueueTopology;
+import com.rabbitmq.client.GetResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Просмотр и переотправка сообщений из parking lot очередей событий заказов.
+ *
+ * Сообщения забираются пачкой без auto-ack, публикуются в основную очередь с подтверждением
+ * брокера и только затем подтверждаются в parking lot. Неподтвержденные возвращаются
+ * в parking lot, поэтому при сбое сообщение может быть доставлено дважды, но не теряется.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ParkingLotService {
+    private static final MessagePropertiesConverter PROPERTIES_CONVERTER = new DefaultMessagePropertiesConverter();
+
+    private final RabbitTemplate rabbitTemplate;
+    private final AmqpAdmin amqpAdmin;
+    private final OrderQueueTopology topology;
+
+    @Value("${order-events.parking-lot.max-replay-batch:500}")
+    private int maxReplayBatch;
+
+    @Value("${order-events.publisher.confirm-timeout-ms:5000}")
+    private long confirmTimeoutMs;
+
+    public Map<String, Long> getParkedCounts() {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (String queue : topology.getQueues()) {
+            QueueInformation info = amqpAdmin.getQueueInfo(OrderQueueTopology.parkingQueue(queue));
+            counts.put(queue, info != null ? info.getMessageCount() : 0L);
+        }
+        return counts;
+    }
+
+    public ParkingLotReplayResult replay(String queue, int limit) {
+        if (!topology.isManaged(queue)) {
+            throw new IllegalArgumentException("Unknown order events queue: " + queue);
+        }
+        String parkingQueue = OrderQueueTopology.parkingQueue(queue);
+        int batchSize = Math.min(Math.max(limit, 1), maxReplayBatch);
+
+        ParkingLotReplayResult result = rabbitTemplate.execute(channel -> {
+            List<Long> deliveryTags = new ArrayList<>(batchSize);
+            List<CorrelationData> confirms = new ArrayList<>(batchSize);
+            int replayed = 0;
+            int settled = 0;
+            try {
+                GetResponse response;
+                while (deliveryTags.size() < batchSize && (response = channel.basicGet(parkingQueue, false)) != null) {
+                    deliveryTags.add(response.getEnvelope().getDeliveryTag());
+                    MessageProperties properties = PROPERTIES_CONVERTER.toMessageProperties(
+                            response.getProps(), response.getEnvelope(), StandardCharsets.UTF_8.name());
+                    // Переотправленное сообщение снова проходит все уровни повторов
+                    properties.getHeaders().remove(OrderQueueTopology.RETRY_COUNT_HEADER);
+                    properties.getHeaders().remove("x-death");
+                    CorrelationData correlation = new CorrelationData();
+                    rabbitTemplate.send("", queue, new Message(response.getBody(), properties), correlation);
+                    confirms.add(correlation);
+                }
+                for (; settled < confirms.size(); settled++) {
+                    if (isConfirmed(confirms.get(settled))) {
+                        channel.basicAck(deliveryTags.get(settled), false);
+                        replayed++;
+                    } else {
+                        channel.basicNack(deliveryTags.get(settled), false, true);
+                    }
+                }
+            } finally {
+                // Ошибка посреди пачки: необработанные сообщения остаются в parking lot
+                for (; settled < deliveryTags.size(); settled++) {
+                    channel.basicNack(deliveryTags.get(settled), false, true);
+                }
+            }
+            long remaining = channel.messageCount(parkingQueue);
+            return new ParkingLotReplayResult(queue, replayed, deliveryTags.size() - replayed, remaining);
+        });
+        log.info("Replayed parked messages: {}", result);
+        return result;
+    }
+
+    // Основная очередь может быть переполнена (reject-publish) — тогда nack
+    private boolean isConfirmed(CorrelationData correlation) {
+        try {
+            CorrelationData.Confirm confirm = correlation.getFuture().get(confirmTimeoutMs, TimeUnit.MILLISECONDS);
+            return confirm.isAck() && correlation.getReturned() == null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+}
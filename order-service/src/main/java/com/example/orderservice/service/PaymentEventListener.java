@@ -0,0 +1,47 @@
+package com.example.orderservice.service;
+
+import com.example.orderevents.OrderEventRetryRouter;
+import com.example.orderservice.client.PaymentGatewayException;
+import com.example.orderservice.dto.OrderCreatedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpRejectAndDontRequeueException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+// Обработчик платежей: своя очередь order.created, число одновременных вызовов шлюза
+// ограничено числом consumer'ов paymentContainerFactory
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentEventListener {
+    public static final String QUEUE = "order.created.payment.queue";
+
+    private final PaymentService paymentService;
+    private final OrderEventRetryRouter retryRouter;
+
+    @RabbitListener(queues = QUEUE, containerFactory = "paymentContainerFactory")
+    public void onOrderCreated(OrderCreatedEvent event, Message message) {
+        try {
+            PaymentService.ProcessingResult result = paymentService.processPayment(event);
+            if (result == PaymentService.ProcessingResult.NOT_READY) {
+                retryOrPark(message, new IllegalStateException("Payment of order " + event.getOrderId() + " not found yet"));
+            }
+            // Повтор не поможет: платеж уже не PENDING, возврат — вручную по сообщению из parking lot
+            if (result == PaymentService.ProcessingResult.REFUND_FAILED) {
+                throw new AmqpRejectAndDontRequeueException("Refund for order " + event.getOrderId() + " failed, "
+                        + QUEUE + " message parked");
+            }
+        } catch (PaymentGatewayException e) {
+            retryOrPark(message, e);
+        }
+    }
+
+    // Копия в очереди задержки подтверждена — контейнер подтверждает исходное; иначе в parking lot
+    private void retryOrPark(Message message, Exception failure) {
+        if (retryRouter.retryOrPark(message, QUEUE, failure) == OrderEventRetryRouter.Decision.PARK) {
+            throw new AmqpRejectAndDontRequeueException("Message from " + QUEUE + " parked", failure);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.dto.PaymentEvent;
+import com.example.orderservice.model.Payment;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+// Итоги платежей из payment.completed / payment.failed: оплаченный заказ подтверждается,
+// неоплаченный остается PENDING и отменяется StalePendingOrderSweeper по таймауту
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentResultListener {
+    public static final String QUEUE = "payment.result.queue";
+
+    private final OrderService orderService;
+
+    @RabbitListener(queues = QUEUE)
+    public void onPaymentResult(PaymentEvent event) {
+        if (event.getStatus() != Payment.PaymentStatus.COMPLETED) {
+            log.info("Payment {} of order {} failed: {}", event.getPaymentId(), event.getOrderId(), event.getFailureReason());
+            return;
+        }
+        orderService.confirmPaidOrder(event.getOrderId());
+    }
+}
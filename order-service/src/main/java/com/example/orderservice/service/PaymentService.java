@@ -0,0 +1,168 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.client.PaymentGateway;
+import com.example.orderservice.client.PaymentGatewayException;
+import com.example.orderservice.client.PaymentRequest;
+import com.example.orderservice.client.PaymentResult;
+import com.example.orderservice.dto.OrderCreatedEvent;
+import com.example.orderservice.dto.PaymentEvent;
+import com.example.orderservice.model.Payment;
+import com.example.orderservice.repository.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Обработка платежа по событию order.created вне транзакции заказа.
+ *
+ * Вызов шлюза идет без открытой транзакции и соединения с БД; результат записывается
+ * условным UPDATE только для PENDING-платежа, поэтому повторная доставка события
+ * ничего не меняет и не публикует событие повторно. Шлюз получает ключ идемпотентности
+ * payment-<id>: повтор после сбоя не спишет деньги дважды.
+ *
+ * Метрики: payments.gateway.latency (outcome), payments.processed (result),
+ * payments.in.flight.
+ */
+@Slf4j
+@Service
+public class PaymentService {
+
+    public enum ProcessingResult {
+        COMPLETED,
+        FAILED,
+        SKIPPED,       // уже обработан, оплата при получении или изменен параллельно
+        NOT_READY,     // транзакция заказа еще не зафиксирована, нужно повторить позже
+        REFUNDED,      // списание прошло, но платеж уже закрыт (заказ отменен) — деньги возвращены
+        REFUND_FAILED  // возврат не прошел, сообщение нужно отложить для ручной обработки
+    }
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentGateway paymentGateway;
+    private final OrderEventPublisher orderEventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    public PaymentService(PaymentRepository paymentRepository,
+                          PaymentGateway paymentGateway,
+                          OrderEventPublisher orderEventPublisher,
+                          MeterRegistry meterRegistry) {
+        this.paymentRepository = paymentRepository;
+        this.paymentGateway = paymentGateway;
+        this.orderEventPublisher = orderEventPublisher;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge("payments.in.flight", inFlight);
+    }
+
+    /**
+     * @throws PaymentGatewayException временный сбой шлюза, событие нужно повторить
+     */
+    public ProcessingResult processPayment(OrderCreatedEvent event) {
+        Optional<Payment> found = paymentRepository.findByOrderId(event.getOrderId());
+        if (found.isEmpty()) {
+            return count(ProcessingResult.NOT_READY);
+        }
+        Payment payment = found.get();
+        if (payment.getStatus() != Payment.PaymentStatus.PENDING) {
+            log.debug("Payment {} of order {} already {}", payment.getId(), event.getOrderId(), payment.getStatus());
+            return count(ProcessingResult.SKIPPED);
+        }
+        // Наличные принимает курьер, платеж остается PENDING до доставки
+        if (payment.getMethod() == Payment.PaymentMethod.CASH_ON_DELIVERY) {
+            return count(ProcessingResult.SKIPPED);
+        }
+
+        PaymentResult result = charge(payment, event);
+        Payment.PaymentStatus status = result.isApproved()
+                ? Payment.PaymentStatus.COMPLETED
+                : Payment.PaymentStatus.FAILED;
+        int updated = paymentRepository.updateResult(payment.getId(), Payment.PaymentStatus.PENDING, status,
+                result.getTransactionId(), result.getDeclineReason(), LocalDateTime.now());
+        if (updated == 0) {
+            return count(discardResult(payment, event, result));
+        }
+
+        try {
+            orderEventPublisher.publishPaymentEvent(PaymentEvent.builder()
+                    .eventId(UUID.randomUUID().toString())
+                    .paymentId(payment.getId())
+                    .orderId(event.getOrderId())
+                    .userId(event.getUserId())
+                    .restaurantId(event.getRestaurantId())
+                    .amount(payment.getAmount())
+                    .method(payment.getMethod())
+                    .status(status)
+                    .transactionId(result.getTransactionId())
+                    .failureReason(result.getDeclineReason())
+                    .occurredAt(Instant.now())
+                    .build());
+        } catch (Exception e) {
+            log.warn("⚠️ Could not publish payment event for order {}: {}", event.getOrderId(), e.getMessage());
+        }
+
+        log.info("💳 Payment {} of order {}: {}", payment.getId(), event.getOrderId(), status);
+        return count(result.isApproved() ? ProcessingResult.COMPLETED : ProcessingResult.FAILED);
+    }
+
+    /**
+     * Платеж перестал быть PENDING, пока шлюз списывал деньги. Если записано то же списание
+     * (параллельная доставка с тем же ключом идемпотентности), делать нечего; иначе платеж
+     * закрыт без него (заказ отменен) и списание возвращается.
+     */
+    private ProcessingResult discardResult(Payment payment, OrderCreatedEvent event, PaymentResult result) {
+        if (!result.isApproved()) {
+            log.info("Payment {} of order {} was processed concurrently, decline discarded",
+                    payment.getId(), event.getOrderId());
+            return ProcessingResult.SKIPPED;
+        }
+        Payment current = paymentRepository.findById(payment.getId()).orElse(null);
+        if (current == null || result.getTransactionId().equals(current.getTransactionId())) {
+            log.info("Payment {} of order {} was processed concurrently, result discarded",
+                    payment.getId(), event.getOrderId());
+            return ProcessingResult.SKIPPED;
+        }
+
+        log.warn("Payment {} of order {} became {} during the charge, refunding transaction {}",
+                payment.getId(), event.getOrderId(), current.getStatus(), result.getTransactionId());
+        try {
+            paymentGateway.refund("refund-" + payment.getId(), result.getTransactionId(), payment.getAmount());
+        } catch (PaymentGatewayException e) {
+            log.error("Refund of transaction {} for payment {} of order {} failed: {}",
+                    result.getTransactionId(), payment.getId(), event.getOrderId(), e.getMessage());
+            return ProcessingResult.REFUND_FAILED;
+        }
+        paymentRepository.updateResult(payment.getId(), current.getStatus(), Payment.PaymentStatus.REFUNDED,
+                result.getTransactionId(), current.getFailureReason(), LocalDateTime.now());
+        return ProcessingResult.REFUNDED;
+    }
+
+    private PaymentResult charge(Payment payment, OrderCreatedEvent event) {
+        PaymentRequest request = new PaymentRequest("payment-" + payment.getId(), event.getOrderId(),
+                event.getUserId(), payment.getAmount(), payment.getMethod());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        inFlight.incrementAndGet();
+        try {
+            PaymentResult result = paymentGateway.charge(request);
+            outcome = result.isApproved() ? "approved" : "declined";
+            return result;
+        } finally {
+            inFlight.decrementAndGet();
+            sample.stop(Timer.builder("payments.gateway.latency")
+                    .tag("outcome", outcome)
+                    .publishPercentiles(0.5, 0.95, 0.99)
+                    .register(meterRegistry));
+        }
+    }
+
+    private ProcessingResult count(ProcessingResult result) {
+        meterRegistry.counter("payments.processed", "result", result.name().toLowerCase()).increment();
+        return result;
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.orderservice.service;
+
+import com.example.orderservice.model.Payment;
+import com.example.orderservice.repository.OrderRepository;
+import com.example.orderservice.repository.OrderStatusTransition;
+import com.example.orderservice.repository.PaymentRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Автоотмена заказов, зависших в PENDING дольше max-age-minutes.
+ *
+ * Каждая пачка (до batch-size заказов) — отдельная короткая транзакция: один UPDATE
+ * с FOR UPDATE SKIP LOCKED и перевод незавершенных платежей этих заказов в FAILED.
+ * События отмены публикуются одной пачкой после фиксации транзакции. За запуск
+ * обрабатывается не больше max-batches-per-run пачек, остальное — в следующий раз.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "orders.pending-sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class StalePendingOrderSweeper {
+
+    private final OrderRepository orderRepository;
+    private final PaymentRepository paymentRepository;
+    private final OrderEventPublisher orderEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final long maxAgeMinutes;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final String reason;
+
+    public StalePendingOrderSweeper(OrderRepository orderRepository,
+                                    PaymentRepository paymentRepository,
+                                    OrderEventPublisher orderEventPublisher,
+                                    TransactionTemplate transactionTemplate,
+                                    @Value("${orders.pending-sweeper.max-age-minutes:60}") long maxAgeMinutes,
+                                    @Value("${orders.pending-sweeper.batch-size:200}") int batchSize,
+                                    @Value("${orders.pending-sweeper.max-batches-per-run:50}") int maxBatchesPerRun) {
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+        this.orderEventPublisher = orderEventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAgeMinutes = maxAgeMinutes;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.reason = "Expired: not confirmed within " + maxAgeMinutes + " minutes";
+    }
+
+    @Scheduled(fixedDelayString = "${orders.pending-sweeper.interval-ms:60000}",
+            initialDelayString = "${orders.pending-sweeper.initial-delay-ms:30000}")
+    public void sweep() {
+        // Граница фиксируется на весь запуск: заказы, ставшие старыми во время очистки, — в следующий раз
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(maxAgeMinutes);
+        int cancelled = 0;
+        try {
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                List<OrderStatusTransition> transitions = transactionTemplate.execute(status -> cancelBatch(cutoff));
+                if (transitions == null || transitions.isEmpty()) {
+                    break;
+                }
+                cancelled += transitions.size();
+                publish(transitions);
+                if (transitions.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Stale pending orders sweep failed after {} cancellations: {}", cancelled, e.getMessage());
+        }
+        if (cancelled > 0) {
+            log.info("⏰ Cancelled {} orders pending since before {}", cancelled, cutoff);
+        }
+    }
+
+    private List<OrderStatusTransition> cancelBatch(LocalDateTime cutoff) {
+        List<OrderStatusTransition> transitions = orderRepository.cancelStalePending(cutoff, batchSize);
+        if (!transitions.isEmpty()) {
+            List<Long> orderIds = transitions.stream()
+                    .map(OrderStatusTransition::getId)
+                    .toList();
+            paymentRepository.updatePendingByOrderIds(orderIds, Payment.PaymentStatus.PENDING,
+                    Payment.PaymentStatus.FAILED, reason, LocalDateTime.now());
+        }
+        return transitions;
+    }
+
+    private void publish(List<OrderStatusTransition> transitions) {
+        try {
+            orderEventPublisher.publishStatusTransitions(transitions, reason);
+        } catch (Exception e) {
+            log.warn("⚠️ Could not publish {} cancellation events: {}", transitions.size(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,3 @@
+-- Версия заказа: увеличивается при каждом изменении статуса (и при сохранении через JPA)
+ALTER TABLE orders
+    ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,5 @@
+-- Результат обработки платежа асинхронным обработчиком
+ALTER TABLE payment
+    ADD COLUMN IF NOT EXISTS transaction_id VARCHAR(100),
+    ADD COLUMN IF NOT EXISTS failure_reason VARCHAR(255),
+    ADD COLUMN IF NOT EXISTS processed_at TIMESTAMP;
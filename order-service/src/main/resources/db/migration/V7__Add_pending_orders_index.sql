@@ -0,0 +1,3 @@
+-- Частичный индекс для очистки зависших PENDING-заказов: только ожидающие заказы,
+-- поэтому остается маленьким и не растет вместе с историей
+CREATE INDEX IF NOT EXISTS idx_orders_pending_order_date ON orders(order_date) WHERE status = 'PENDING';
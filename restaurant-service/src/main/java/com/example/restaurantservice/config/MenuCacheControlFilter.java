@@ -0,0 +1,54 @@
+package com.example.restaurantservice.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Cache-Control для публичного каталога: анонимные GET ресторанов, блюд и меню
+ * разрешено хранить разделяемому кэшу (кэш ответов api-gateway) s-maxage секунд,
+ * браузер каждый раз перезапрашивает (max-age=0) — изменения меню сбрасывают только
+ * кэш gateway. Заголовок ставится до Spring Security: его CacheControlHeadersWriter
+ * не перезаписывает уже заданный Cache-Control, остальные ответы остаются no-store.
+ */
+@Component
+public class MenuCacheControlFilter extends OncePerRequestFilter {
+    private static final List<String> CATALOG_PREFIXES = List.of("/api/restaurants", "/api/dishes", "/api/menu");
+
+    private final String cacheControl;
+
+    public MenuCacheControlFilter(@Value("${menu-cache.shared-max-age-seconds:600}") long sharedMaxAgeSeconds) {
+        this.cacheControl = "public, max-age=0, s-maxage=" + sharedMaxAgeSeconds;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (isPublicCatalogRequest(request)) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl);
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private boolean isPublicCatalogRequest(HttpServletRequest request) {
+        if (!"GET".equals(request.getMethod()) || request.getHeader(HttpHeaders.AUTHORIZATION) != null) {
+            return false;
+        }
+        String path = request.getRequestURI();
+        // Экран кухни — данные конкретного ресторана для персонала, не каталог
+        if (path.endsWith("/incoming-orders")) {
+            return false;
+        }
+        return CATALOG_PREFIXES.stream()
+                .anyMatch(prefix -> path.equals(prefix) || path.startsWith(prefix + "/"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.restaurantservice.config;
+
+import com.example.menuevents.MenuChangeEvent;
+import com.example.orderevents.OrderEventRetryRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+
+// Очереди событий заказов с dead-letter, повторами и parking lot объявляет order-service
+// (OrderQueueTopology); здесь только потребитель
+@Configuration
+public class RabbitMQConfig {
+
+    // События меню (MenuOutboxRelay); очереди подписчиков объявляет menu-events-client
+    @Bean
+    public TopicExchange menuExchange() {
+        return new TopicExchange(MenuChangeEvent.EXCHANGE);
+    }
+
+    // JSON для RabbitTemplate (события меню); listener'ы событий заказов разбирают Message сами
+    @Bean
+    public MessageConverter rabbitMessageConverter(ObjectMapper objectMapper) {
+        return new Jackson2JsonMessageConverter(objectMapper);
+    }
+
+    /**
+     * Listener'ы событий заказов получают сообщения пачками (до batch-size или receive-timeout-ms)
+     * и подтверждают их вручную одним ack на пачку. prefetch не меньше batch-size,
+     * иначе пачка не наберется.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory orderEventsContainerFactory(
+            ConnectionFactory connectionFactory,
+            @Value("${order-events.consumer.prefetch:100}") int prefetch,
+            @Value("${order-events.consumer.concurrency:2}") int concurrency,
+            @Value("${order-events.consumer.max-concurrency:4}") int maxConcurrency,
+            @Value("${order-events.consumer.batch-size:25}") int batchSize,
+            @Value("${order-events.consumer.receive-timeout-ms:200}") long receiveTimeoutMs) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setPrefetchCount(Math.max(prefetch, batchSize));
+        factory.setConcurrentConsumers(concurrency);
+        factory.setMaxConcurrentConsumers(maxConcurrency);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setReceiveTimeout(receiveTimeoutMs);
+        // Сервис может стартовать раньше order-service: контейнер ждет появления очередей
+        factory.setMissingQueuesFatal(false);
+        return factory;
+    }
+
+    // Повтор необработанного события: копия в очередь задержки с подтверждением, потом ack исходного
+    @Bean
+    public OrderEventRetryRouter orderEventRetryRouter(
+            RabbitTemplate rabbitTemplate,
+            @Value("${order-events.topology.retry-delays-ms:1000,10000,60000}") List<Long> retryDelaysMs,
+            @Value("${order-events.retry.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        return new OrderEventRetryRouter(rabbitTemplate, retryDelaysMs, confirmTimeoutMs);
+    }
+}
@@ -38,6 +38,9 @@ public class SecurityConfig {
                         .requestMatchers("/actuator/health").permitAll()
                         .requestMatchers("/uploads/**").permitAll() // Разрешаем доступ к загруженным файлам
 
+                        // Входящие заказы (экран кухни) — до публичного GET /api/restaurants/**
+                        .requestMatchers("GET", "/api/restaurants/*/incoming-orders").hasAnyRole("ADMIN", "MANAGER")
+
                         // Публичные GET запросы (должны быть перед защищенными)
                         .requestMatchers("GET", "/api/restaurants/**").permitAll()
                         .requestMatchers("GET", "/api/dishes/**").permitAll()
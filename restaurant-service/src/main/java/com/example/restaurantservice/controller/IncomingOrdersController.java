@@ -0,0 +1,28 @@
+package com.example.restaurantservice.controller;
+
+import com.example.restaurantservice.dto.IncomingOrderDTO;
+import com.example.restaurantservice.service.IncomingOrdersService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/restaurants")
+@RequiredArgsConstructor
+@Tag(name = "Входящие заказы", description = "Заказы ресторана для экрана кухни")
+public class IncomingOrdersController {
+
+    private final IncomingOrdersService incomingOrdersService;
+
+    // Данные из событий RabbitMQ (таблица incoming_order), без запросов к order-service
+    @GetMapping("/{restaurantId}/incoming-orders")
+    @Operation(summary = "Получить входящие заказы ресторана")
+    public ResponseEntity<List<IncomingOrderDTO>> getIncomingOrders(
+            @PathVariable(name = "restaurantId") Long restaurantId) {
+        return ResponseEntity.ok(incomingOrdersService.getIncomingOrders(restaurantId));
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.restaurantservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Заказ на экране кухни: собирается из событий order.created и order.status
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class IncomingOrderDTO {
+    private Long orderId;
+    private Long restaurantId;
+    private Long userId;
+    private Integer totalPrice;
+    private LocalDateTime orderDate;
+    private List<Item> items;
+    private String status;
+    private String statusReason;
+    private Instant statusChangedAt;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long dishId;
+        private String dishName;
+        private Integer quantity;
+    }
+}
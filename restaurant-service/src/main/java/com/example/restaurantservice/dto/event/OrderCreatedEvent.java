@@ -0,0 +1,25 @@
+package com.example.restaurantservice.dto.event;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Событие order.created от order-service (JSON)
+@Data
+public class OrderCreatedEvent {
+    private Long orderId;
+    private Long userId;
+    private Long restaurantId;
+    private Integer totalPrice;
+    private LocalDateTime orderDate;
+    private List<OrderItemEvent> items;
+
+    @Data
+    public static class OrderItemEvent {
+        private Long dishId;
+        private String dishName;
+        private Integer quantity;
+        private Integer price;
+    }
+}
@@ -47,6 +47,10 @@ public class Dish {
     @NotNull(message = "Ресторан обязателен")
     private Restaurant restaurant;
 
+    // Увеличивается при каждом изменении, передается в событиях меню
+    @Version
+    private Long version;
+
     @Builder.Default
     @Column(name = "deleted", nullable = false)
     private boolean deleted = false;
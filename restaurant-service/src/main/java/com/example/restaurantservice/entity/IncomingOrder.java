@@ -0,0 +1,51 @@
+package com.example.restaurantservice.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+
+// Заказ на экране кухни; пишется только upsert'ами IncomingOrderRepository
+@Entity
+@Table(name = "incoming_order")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class IncomingOrder {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "restaurant_id", nullable = false)
+    private Long restaurantId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "total_price")
+    private Integer totalPrice;
+
+    @Column(name = "order_date")
+    private LocalDateTime orderDate;
+
+    // Позиции заказа в JSON
+    @Column(columnDefinition = "TEXT")
+    private String items;
+
+    @Column(nullable = false, length = 30)
+    private String status;
+
+    @Column(name = "status_reason", columnDefinition = "TEXT")
+    private String statusReason;
+
+    @Column(name = "status_changed_at")
+    private Instant statusChangedAt;
+}
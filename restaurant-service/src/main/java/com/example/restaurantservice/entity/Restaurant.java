@@ -40,6 +40,10 @@ public class Restaurant {
     @Column(columnDefinition = "TEXT", nullable = false)
     private String address;
 
+    // Увеличивается при каждом изменении, передается в событиях меню
+    @Version
+    private Long version;
+
     @Builder.Default
     @Column(name = "deleted", nullable = false)
     private boolean deleted = false;
@@ -17,6 +17,7 @@ public interface DishMapper {
     DishDTO toDTO(Dish dish);
 
     @Mapping(source = "restaurantId", target = "restaurant", qualifiedByName = "idToRestaurant")
+    @Mapping(target = "version", ignore = true)
     Dish toEntity(DishDTO dto);
 
     @Named("restaurantToId")
@@ -5,11 +5,13 @@ import com.example.restaurantservice.entity.Restaurant;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 
-@Mapper(componentModel = "spring")
+// Блюда ресторана — через DishMapper, с теми же правилами, что и для отдельного блюда
+@Mapper(componentModel = "spring", uses = DishMapper.class)
 public interface RestaurantMapper {
 
     @Mapping(source = "deleted", target = "deleted")
     RestaurantDTO toDTO(Restaurant restaurant);
 
+    @Mapping(target = "version", ignore = true)
     Restaurant toEntity(RestaurantDTO dto);
 }
\ No newline at end of file
@@ -0,0 +1,96 @@
+package com.example.restaurantservice.messaging;
+
+import com.example.menuevents.MenuChangeEvent;
+import com.example.restaurantservice.entity.MenuOutboxEvent;
+import com.example.restaurantservice.repository.MenuOutboxRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Публикует события меню из outbox в menu.exchange.
+ *
+ * Пачка неопубликованных строк блокируется (FOR UPDATE SKIP LOCKED), отправляется
+ * через один канал с ожиданием подтверждений брокера и помечается опубликованной
+ * в той же транзакции. Если брокер недоступен, транзакция откатывается и пачка
+ * уйдет при следующем запуске — доставка at-least-once, повторы подписчики
+ * отбрасывают по версии.
+ */
+@Slf4j
+@Component
+public class MenuOutboxRelay {
+
+    private final MenuOutboxRepository menuOutboxRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+    private final long retentionHours;
+
+    public MenuOutboxRelay(MenuOutboxRepository menuOutboxRepository,
+                           RabbitTemplate rabbitTemplate,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${menu-events.outbox.batch-size:100}") int batchSize,
+                           @Value("${menu-events.outbox.confirm-timeout-ms:5000}") long confirmTimeoutMs,
+                           @Value("${menu-events.outbox.retention-hours:24}") long retentionHours) {
+        this.menuOutboxRepository = menuOutboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+        this.retentionHours = retentionHours;
+    }
+
+    @Scheduled(fixedDelayString = "${menu-events.outbox.poll-interval-ms:500}")
+    public void relay() {
+        try {
+            Integer published;
+            // Outbox разбирается, пока пачки полные
+            do {
+                published = transactionTemplate.execute(status -> publishBatch());
+            } while (published != null && published == batchSize);
+        } catch (AmqpException e) {
+            log.warn("Menu events not published, will retry: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${menu-events.outbox.cleanup-interval-ms:3600000}")
+    public void cleanup() {
+        Integer deleted = transactionTemplate.execute(status ->
+                menuOutboxRepository.deletePublishedBefore(LocalDateTime.now().minusHours(retentionHours)));
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} published menu outbox events", deleted);
+        }
+    }
+
+    private int publishBatch() {
+        List<MenuOutboxEvent> batch = menuOutboxRepository.lockUnpublished(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        rabbitTemplate.invoke(operations -> {
+            for (MenuOutboxEvent row : batch) {
+                operations.convertAndSend(MenuChangeEvent.EXCHANGE, row.getEntityType().getRoutingKey(), toEvent(row));
+            }
+            operations.waitForConfirmsOrDie(confirmTimeoutMs);
+            return null;
+        });
+        LocalDateTime now = LocalDateTime.now();
+        batch.forEach(row -> row.setPublishedAt(now));
+        log.debug("Published {} menu events", batch.size());
+        return batch.size();
+    }
+
+    private MenuChangeEvent toEvent(MenuOutboxEvent row) {
+        return new MenuChangeEvent(row.getEntityType(), row.getEntityId(), row.getRestaurantId(), row.getVersion(),
+                row.getChangeType(), row.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.restaurantservice.messaging;
+
+import com.example.orderevents.OrderEventRetryRouter;
+import com.example.orderevents.OrderStatusEventCodec;
+import com.example.orderevents.OrderStatusMessage;
+import com.example.restaurantservice.dto.event.OrderCreatedEvent;
+import com.example.restaurantservice.service.IncomingOrdersService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpIOException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareBatchMessageListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Потребитель событий заказов для экрана кухни. Сообщения приходят пачкой, каждое
+ * обрабатывается отдельно:
+ * - нечитаемое отклоняется без возврата в очередь и попадает в parking lot;
+ * - ошибка обработки — повтор с задержкой через {@link OrderEventRetryRouter};
+ * - остальные подтверждаются одним multiple-ack по последнему delivery tag.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderEventsListener implements RabbitListenerConfigurer {
+    private static final String ORDER_CREATED_QUEUE = "order.created.queue";
+
+    private final IncomingOrdersService incomingOrdersService;
+    private final OrderEventRetryRouter retryRouter;
+    private final ObjectMapper objectMapper;
+    private final OrderStatusPartitions statusPartitions;
+    private final PartitionLagMonitor lagMonitor;
+    private final SimpleRabbitListenerContainerFactory orderEventsContainerFactory;
+
+    @RabbitListener(queues = ORDER_CREATED_QUEUE, containerFactory = "orderEventsContainerFactory")
+    public void onOrdersCreated(List<Message> messages, Channel channel) throws IOException {
+        process(ORDER_CREATED_QUEUE, messages, channel, this::decodeCreatedEvent, incomingOrdersService::onOrderCreated);
+    }
+
+    /**
+     * По контейнеру с одним consumer'ом на каждую партицию order.status.queue: события
+     * одного заказа всегда в одной партиции и обрабатываются по порядку, партиции — параллельно.
+     * На очередях включен single-active-consumer, так что среди экземпляров сервиса
+     * партицию читает один.
+     */
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        for (String queue : statusPartitions.getQueues()) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId("order-status-" + queue);
+            endpoint.setQueueNames(queue);
+            endpoint.setConcurrency("1");
+            endpoint.setMessageListener((ChannelAwareBatchMessageListener) (messages, channel) -> {
+                try {
+                    process(queue, messages, channel, this::decodeStatusEvent, event -> {
+                        incomingOrdersService.onStatusChanged(event);
+                        lagMonitor.recordProcessed(queue, event.getOccurredAt());
+                    });
+                } catch (IOException e) {
+                    throw new AmqpIOException(e);
+                }
+            });
+            registrar.registerEndpoint(endpoint, orderEventsContainerFactory);
+        }
+    }
+
+    private <T> void process(String queue, List<Message> messages, Channel channel,
+                             Decoder<T> decoder, Consumer<T> handler) throws IOException {
+        long lastAckTag = 0;
+        for (Message message : messages) {
+            long deliveryTag = message.getMessageProperties().getDeliveryTag();
+            T event;
+            try {
+                event = decoder.decode(message);
+            } catch (IllegalArgumentException | IOException e) {
+                // Повтор не поможет
+                log.error("Parking unreadable message from {}: {}", queue, e.getMessage());
+                channel.basicReject(deliveryTag, false);
+                continue;
+            }
+            try {
+                handler.accept(event);
+            } catch (RuntimeException e) {
+                if (retryRouter.retryOrPark(message, queue, e) == OrderEventRetryRouter.Decision.PARK) {
+                    channel.basicReject(deliveryTag, false);
+                    continue;
+                }
+            }
+            lastAckTag = deliveryTag;
+        }
+        // Отклоненные сообщения уже не ожидают подтверждения, multiple-ack их не затрагивает
+        if (lastAckTag > 0) {
+            channel.basicAck(lastAckTag, true);
+        }
+        log.debug("Processed {} messages from {}", messages.size(), queue);
+    }
+
+    private OrderCreatedEvent decodeCreatedEvent(Message message) throws IOException {
+        return objectMapper.readValue(message.getBody(), OrderCreatedEvent.class);
+    }
+
+    private OrderStatusMessage decodeStatusEvent(Message message) {
+        String contentType = message.getMessageProperties().getContentType();
+        if (!OrderStatusEventCodec.CONTENT_TYPE.equals(contentType)) {
+            throw new IllegalArgumentException("Unexpected content type " + contentType);
+        }
+        return OrderStatusEventCodec.decode(message.getBody());
+    }
+
+    @FunctionalInterface
+    private interface Decoder<T> {
+        T decode(Message message) throws IOException;
+    }
+}
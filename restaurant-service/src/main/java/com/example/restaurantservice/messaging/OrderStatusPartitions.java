@@ -0,0 +1,34 @@
+package com.example.restaurantservice.messaging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Партиции order.status.queue, объявленные order-service (OrderQueueTopology):
+ * {@code order.status.queue.p<i>} при N > 1, иначе сама {@code order.status.queue}.
+ */
+@Component
+public class OrderStatusPartitions {
+    static final String ORDER_STATUS_QUEUE = "order.status.queue";
+
+    private final List<String> queues;
+
+    public OrderStatusPartitions(@Value("${order-events.topology.status-partitions:4}") int partitions) {
+        if (partitions <= 1) {
+            this.queues = List.of(ORDER_STATUS_QUEUE);
+            return;
+        }
+        List<String> names = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            names.add(ORDER_STATUS_QUEUE + ".p" + i);
+        }
+        this.queues = List.copyOf(names);
+    }
+
+    public List<String> getQueues() {
+        return queues;
+    }
+}
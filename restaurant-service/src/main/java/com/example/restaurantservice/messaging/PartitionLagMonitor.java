@@ -0,0 +1,63 @@
+package com.example.restaurantservice.messaging;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.amqp.core.AmqpAdmin;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отставание партиций order.status.queue:
+ * - order.events.partition.lag — мс от occurredAt последнего обработанного события до его обработки;
+ * - order.events.partition.depth — сообщений в партиции, ожидающих доставки (по данным брокера,
+ *   не чаще раза в depth-refresh-ms).
+ */
+@Component
+public class PartitionLagMonitor {
+    private final AmqpAdmin amqpAdmin;
+    private final long depthRefreshMs;
+    private final Map<String, Long> lagMillis = new ConcurrentHashMap<>();
+    private final Map<String, Depth> depths = new ConcurrentHashMap<>();
+
+    public PartitionLagMonitor(AmqpAdmin amqpAdmin, MeterRegistry meterRegistry, OrderStatusPartitions partitions,
+                               @Value("${order-events.consumer.depth-refresh-ms:5000}") long depthRefreshMs) {
+        this.amqpAdmin = amqpAdmin;
+        this.depthRefreshMs = depthRefreshMs;
+        for (String queue : partitions.getQueues()) {
+            lagMillis.put(queue, 0L);
+            Gauge.builder("order.events.partition.lag", lagMillis, lags -> lags.get(queue))
+                    .tag("queue", queue)
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+            Gauge.builder("order.events.partition.depth", this, monitor -> monitor.depth(queue))
+                    .tag("queue", queue)
+                    .register(meterRegistry);
+        }
+    }
+
+    public void recordProcessed(String queue, Instant occurredAt) {
+        if (occurredAt != null) {
+            lagMillis.put(queue, Math.max(0, System.currentTimeMillis() - occurredAt.toEpochMilli()));
+        }
+    }
+
+    private double depth(String queue) {
+        long now = System.currentTimeMillis();
+        Depth cached = depths.get(queue);
+        if (cached != null && now - cached.fetchedAt() < depthRefreshMs) {
+            return cached.messages();
+        }
+        QueueInformation info = amqpAdmin.getQueueInfo(queue);
+        double messages = info != null ? info.getMessageCount() : Double.NaN;
+        depths.put(queue, new Depth(messages, now));
+        return messages;
+    }
+
+    private record Depth(double messages, long fetchedAt) {
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.restaurantservice.repository;
+
+import com.example.restaurantservice.entity.IncomingOrder;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface IncomingOrderRepository extends JpaRepository<IncomingOrder, Long> {
+
+    /**
+     * order.created может прийти после событий статуса: данные заказа дополняются,
+     * статус не трогается.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO incoming_order (order_id, restaurant_id, user_id, total_price, order_date, items, status)
+            VALUES (:orderId, :restaurantId, :userId, :totalPrice, :orderDate, :items, 'PENDING')
+            ON CONFLICT (order_id) DO UPDATE SET
+                restaurant_id = EXCLUDED.restaurant_id, user_id = EXCLUDED.user_id,
+                total_price = EXCLUDED.total_price, order_date = EXCLUDED.order_date, items = EXCLUDED.items
+            """, nativeQuery = true)
+    int upsertCreated(@Param("orderId") Long orderId,
+                      @Param("restaurantId") Long restaurantId,
+                      @Param("userId") Long userId,
+                      @Param("totalPrice") Integer totalPrice,
+                      @Param("orderDate") LocalDateTime orderDate,
+                      @Param("items") String items);
+
+    // Статус меняется только не более ранним событием: повторы и опоздавшие не откатывают его
+    @Modifying
+    @Query(value = """
+            INSERT INTO incoming_order (order_id, restaurant_id, user_id, status, status_reason, status_changed_at)
+            VALUES (:orderId, :restaurantId, :userId, :status, :reason, :occurredAt)
+            ON CONFLICT (order_id) DO UPDATE SET
+                status = EXCLUDED.status, status_reason = EXCLUDED.status_reason,
+                status_changed_at = EXCLUDED.status_changed_at
+            WHERE incoming_order.status_changed_at IS NULL OR EXCLUDED.status_changed_at IS NULL
+                OR incoming_order.status_changed_at <= EXCLUDED.status_changed_at
+            """, nativeQuery = true)
+    int upsertStatus(@Param("orderId") Long orderId,
+                     @Param("restaurantId") Long restaurantId,
+                     @Param("userId") Long userId,
+                     @Param("status") String status,
+                     @Param("reason") String reason,
+                     @Param("occurredAt") Instant occurredAt);
+
+    // Последние limit заказов ресторана: активные и завершенные не раньше finishedAfter
+    @Query(value = """
+            SELECT * FROM incoming_order
+            WHERE restaurant_id = :restaurantId
+              AND (status NOT IN ('DELIVERED', 'CANCELLED') OR status_changed_at IS NULL
+                   OR status_changed_at >= :finishedAfter)
+            ORDER BY order_date DESC NULLS FIRST
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<IncomingOrder> findRecent(@Param("restaurantId") Long restaurantId,
+                                   @Param("finishedAfter") Instant finishedAfter,
+                                   @Param("limit") int limit);
+
+    @Modifying
+    @Query(value = """
+            DELETE FROM incoming_order
+            WHERE status IN ('DELIVERED', 'CANCELLED') AND status_changed_at < :finishedBefore
+            """, nativeQuery = true)
+    int deleteFinishedBefore(@Param("finishedBefore") Instant finishedBefore);
+}
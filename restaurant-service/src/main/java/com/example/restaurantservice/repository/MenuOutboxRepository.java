@@ -0,0 +1,24 @@
+package com.example.restaurantservice.repository;
+
+import com.example.restaurantservice.entity.MenuOutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface MenuOutboxRepository extends JpaRepository<MenuOutboxEvent, Long> {
+
+    // SKIP LOCKED: несколько экземпляров сервиса разбирают outbox, не блокируя друг друга
+    @Query(value = "SELECT * FROM menu_outbox WHERE published_at IS NULL ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<MenuOutboxEvent> lockUnpublished(@Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM MenuOutboxEvent e WHERE e.publishedAt < :before")
+    int deletePublishedBefore(@Param("before") LocalDateTime before);
+}
@@ -1,5 +1,6 @@
 package com.example.restaurantservice.service;
 
+import com.example.menuevents.MenuChangeEvent;
 import com.example.restaurantservice.dto.DishDTO;
 import com.example.restaurantservice.dto.FileUploadResponse;
 import com.example.restaurantservice.dto.SearchCriteria;
@@ -28,6 +29,7 @@ public class DishService {
     private final DishRepository dishRepository;
     private final RestaurantRepository restaurantRepository;
     private final FileStorageService fileStorageService;
+    private final MenuOutboxService menuOutboxService;
 
     private DishDTO toDTO(Dish dish) {
         return DishDTO.builder()
@@ -107,7 +109,8 @@ public class DishService {
                 .orElseThrow(() -> new ResourceNotFoundException("Ресторан не найден с id: " + dishDTO.getRestaurantId()));
 
         Dish dish = toEntity(dishDTO, restaurant);
-        Dish saved = dishRepository.save(dish);
+        Dish saved = dishRepository.saveAndFlush(dish);
+        menuOutboxService.dishChanged(saved, MenuChangeEvent.ChangeType.CREATED);
         log.info("Создано блюдо с id: {}", saved.getId());
         return toDTO(saved);
     }
@@ -137,7 +140,8 @@ public class DishService {
         existing.setImageUrl(dishDTO.getImageUrl());
         existing.setRestaurant(restaurant);
 
-        Dish updated = dishRepository.save(existing);
+        Dish updated = dishRepository.saveAndFlush(existing);
+        menuOutboxService.dishChanged(updated, MenuChangeEvent.ChangeType.UPDATED);
         log.info("Обновлено блюдо с id: {}", id);
         return toDTO(updated);
     }
@@ -161,7 +165,8 @@ public class DishService {
         }
 
         dish.softDelete();
-        dishRepository.save(dish);
+        dishRepository.saveAndFlush(dish);
+        menuOutboxService.dishChanged(dish, MenuChangeEvent.ChangeType.DELETED);
         log.info("Удалено блюдо с id: {}", id);
     }
 
@@ -175,7 +180,8 @@ public class DishService {
         }
 
         dish.restore();
-        dishRepository.save(dish);
+        dishRepository.saveAndFlush(dish);
+        menuOutboxService.dishChanged(dish, MenuChangeEvent.ChangeType.RESTORED);
         log.info("Восстановлено блюдо с id: {}", id);
     }
 
@@ -234,7 +240,8 @@ public class DishService {
 
         // Update dish with new image URL
         dish.setImageUrl(uploadResponse.getFileDownloadUri());
-        Dish updated = dishRepository.save(dish);
+        Dish updated = dishRepository.saveAndFlush(dish);
+        menuOutboxService.dishChanged(updated, MenuChangeEvent.ChangeType.UPDATED);
 
         log.info("Image uploaded for dish id: {}, image: {}", dishId, uploadResponse.getFileName());
         return toDTO(updated);
@@ -253,7 +260,8 @@ public class DishService {
         if (dish.getImageUrl() != null && !dish.getImageUrl().isEmpty()) {
             fileStorageService.deleteFile(dish.getImageUrl());
             dish.setImageUrl(null);
-            Dish updated = dishRepository.save(dish);
+            Dish updated = dishRepository.saveAndFlush(dish);
+            menuOutboxService.dishChanged(updated, MenuChangeEvent.ChangeType.UPDATED);
             log.info("Image deleted for dish id: {}", dishId);
             return toDTO(updated);
         }
@@ -313,7 +321,8 @@ public class DishService {
         existing.setPrice(dishDTO.getPrice());
         existing.setRestaurant(restaurant);
 
-        Dish updated = dishRepository.save(existing);
+        Dish updated = dishRepository.saveAndFlush(existing);
+        menuOutboxService.dishChanged(updated, MenuChangeEvent.ChangeType.UPDATED);
         log.info("Dish updated with image, id: {}", id);
         return toDTO(updated);
     }
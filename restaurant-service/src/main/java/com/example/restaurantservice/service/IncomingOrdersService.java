@@ -0,0 +1,132 @@
+package com.example.restaurantservice.service;
+
+import com.example.orderevents.OrderStatusMessage;
+import com.example.restaurantservice.dto.IncomingOrderDTO;
+import com.example.restaurantservice.dto.event.OrderCreatedEvent;
+import com.example.restaurantservice.entity.IncomingOrder;
+import com.example.restaurantservice.repository.IncomingOrderRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Входящие заказы по ресторанам по событиям из RabbitMQ — экран кухни читает их
+ * без запросов к order_db.
+ *
+ * События разбирают конкурирующие consumer'ы всех экземпляров, поэтому вид хранится
+ * в таблице incoming_order, общей для экземпляров и переживающей перезапуск.
+ * События одного заказа могут прийти в любом порядке (несколько consumer'ов, повторы),
+ * поэтому статус меняется только не более ранним событием, а order.created после статуса
+ * дополняет заказ, не откатывая статус (см. IncomingOrderRepository).
+ */
+@Slf4j
+@Service
+public class IncomingOrdersService {
+    private static final Comparator<IncomingOrderDTO> BY_ORDER_DATE = Comparator.comparing(
+            IncomingOrderDTO::getOrderDate, Comparator.nullsLast(Comparator.naturalOrder()));
+    private static final TypeReference<List<IncomingOrderDTO.Item>> ITEMS_TYPE = new TypeReference<>() {
+    };
+
+    private final IncomingOrderRepository incomingOrderRepository;
+    private final ObjectMapper objectMapper;
+    private final int maxOrdersPerRestaurant;
+    private final long finishedRetentionMs;
+
+    public IncomingOrdersService(IncomingOrderRepository incomingOrderRepository,
+                                 ObjectMapper objectMapper,
+                                 @Value("${order-events.incoming.max-orders-per-restaurant:500}") int maxOrdersPerRestaurant,
+                                 @Value("${order-events.incoming.finished-retention-ms:300000}") long finishedRetentionMs) {
+        this.incomingOrderRepository = incomingOrderRepository;
+        this.objectMapper = objectMapper;
+        this.maxOrdersPerRestaurant = maxOrdersPerRestaurant;
+        this.finishedRetentionMs = finishedRetentionMs;
+    }
+
+    @Transactional
+    public void onOrderCreated(OrderCreatedEvent event) {
+        if (event.getRestaurantId() == null || event.getOrderId() == null) {
+            log.warn("Skipping order created event without restaurant or order id: {}", event);
+            return;
+        }
+        List<IncomingOrderDTO.Item> items = event.getItems() == null ? List.of() : event.getItems().stream()
+                .map(item -> new IncomingOrderDTO.Item(item.getDishId(), item.getDishName(), item.getQuantity()))
+                .toList();
+        incomingOrderRepository.upsertCreated(event.getOrderId(), event.getRestaurantId(), event.getUserId(),
+                event.getTotalPrice(), event.getOrderDate(), writeItems(items));
+    }
+
+    @Transactional
+    public void onStatusChanged(OrderStatusMessage event) {
+        if (event.getRestaurantId() == null || event.getOrderId() == null) {
+            log.warn("Skipping order status event without restaurant or order id: {}", event);
+            return;
+        }
+        incomingOrderRepository.upsertStatus(event.getOrderId(), event.getRestaurantId(), event.getUserId(),
+                event.getStatus(), event.getReason(), event.getOccurredAt());
+    }
+
+    /**
+     * Активные заказы ресторана и недавно завершенные (доставлен, отменен), старые первыми;
+     * не больше max-orders-per-restaurant последних.
+     */
+    @Transactional(readOnly = true)
+    public List<IncomingOrderDTO> getIncomingOrders(Long restaurantId) {
+        Instant finishedAfter = Instant.now().minusMillis(finishedRetentionMs);
+        return incomingOrderRepository.findRecent(restaurantId, finishedAfter, maxOrdersPerRestaurant).stream()
+                .map(this::toDto)
+                .sorted(BY_ORDER_DATE)
+                .toList();
+    }
+
+    @Scheduled(fixedDelayString = "${order-events.incoming.cleanup-interval-ms:60000}")
+    @Transactional
+    public void deleteFinished() {
+        int deleted = incomingOrderRepository.deleteFinishedBefore(Instant.now().minusMillis(finishedRetentionMs));
+        if (deleted > 0) {
+            log.debug("Deleted {} finished incoming orders", deleted);
+        }
+    }
+
+    private IncomingOrderDTO toDto(IncomingOrder order) {
+        return IncomingOrderDTO.builder()
+                .orderId(order.getOrderId())
+                .restaurantId(order.getRestaurantId())
+                .userId(order.getUserId())
+                .totalPrice(order.getTotalPrice())
+                .orderDate(order.getOrderDate())
+                .items(readItems(order.getItems()))
+                .status(order.getStatus())
+                .statusReason(order.getStatusReason())
+                .statusChangedAt(order.getStatusChangedAt())
+                .build();
+    }
+
+    private String writeItems(List<IncomingOrderDTO.Item> items) {
+        try {
+            return objectMapper.writeValueAsString(items);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize order items", e);
+        }
+    }
+
+    private List<IncomingOrderDTO.Item> readItems(String items) {
+        if (items == null) {
+            return List.of();
+        }
+        try {
+            return objectMapper.readValue(items, ITEMS_TYPE);
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable items of incoming order: {}", e.getMessage());
+            return List.of();
+        }
+    }
+}
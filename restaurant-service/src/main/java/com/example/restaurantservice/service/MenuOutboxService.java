@@ -0,0 +1,47 @@
+package com.example.restaurantservice.service;
+
+import com.example.menuevents.MenuChangeEvent;
+import com.example.restaurantservice.entity.Dish;
+import com.example.restaurantservice.entity.MenuOutboxEvent;
+import com.example.restaurantservice.entity.Restaurant;
+import com.example.restaurantservice.repository.MenuOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Запись событий меню в outbox в транзакции изменения: событие публикуется
+ * тогда и только тогда, когда изменение зафиксировано.
+ * Сущность должна быть сброшена в БД (saveAndFlush), чтобы версия была актуальной.
+ */
+@Service
+@RequiredArgsConstructor
+public class MenuOutboxService {
+
+    private final MenuOutboxRepository menuOutboxRepository;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void dishChanged(Dish dish, MenuChangeEvent.ChangeType changeType) {
+        record(MenuChangeEvent.EntityType.DISH, dish.getId(), dish.getRestaurant().getId(), dish.getVersion(), changeType);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void restaurantChanged(Restaurant restaurant, MenuChangeEvent.ChangeType changeType) {
+        record(MenuChangeEvent.EntityType.RESTAURANT, restaurant.getId(), restaurant.getId(), restaurant.getVersion(), changeType);
+    }
+
+    private void record(MenuChangeEvent.EntityType entityType, Long id, Long restaurantId, Long version,
+                        MenuChangeEvent.ChangeType changeType) {
+        menuOutboxRepository.save(MenuOutboxEvent.builder()
+                .entityType(entityType)
+                .entityId(id)
+                .restaurantId(restaurantId)
+                .version(version)
+                .changeType(changeType)
+                .createdAt(LocalDateTime.now())
+                .build());
+    }
+}
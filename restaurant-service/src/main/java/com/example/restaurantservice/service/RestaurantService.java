@@ -1,5 +1,6 @@
 package com.example.restaurantservice.service;
 
+import com.example.menuevents.MenuChangeEvent;
 import com.example.restaurantservice.dto.RestaurantDTO;
 import com.example.restaurantservice.dto.SearchCriteria;
 import com.example.restaurantservice.dto.DishDTO;
@@ -26,6 +27,7 @@ public class RestaurantService {
     private final RestaurantRepository restaurantRepository;
     private final DishRepository dishRepository;
     private final DishService dishService;
+    private final MenuOutboxService menuOutboxService;
 
     private RestaurantDTO toDTO(Restaurant restaurant) {
         return RestaurantDTO.builder()
@@ -87,7 +89,8 @@ public class RestaurantService {
         }
 
         Restaurant restaurant = toEntity(restaurantDTO);
-        Restaurant saved = restaurantRepository.save(restaurant);
+        Restaurant saved = restaurantRepository.saveAndFlush(restaurant);
+        menuOutboxService.restaurantChanged(saved, MenuChangeEvent.ChangeType.CREATED);
         log.info("Создан ресторан с id: {}", saved.getId());
         return toDTO(saved);
     }
@@ -110,7 +113,8 @@ public class RestaurantService {
         existing.setCuisine(restaurantDTO.getCuisine());
         existing.setAddress(restaurantDTO.getAddress());
 
-        Restaurant updated = restaurantRepository.save(existing);
+        Restaurant updated = restaurantRepository.saveAndFlush(existing);
+        menuOutboxService.restaurantChanged(updated, MenuChangeEvent.ChangeType.UPDATED);
         log.info("Обновлен ресторан с id: {}", id);
         return toDTO(updated);
     }
@@ -124,8 +128,10 @@ public class RestaurantService {
             throw new ResourceNotFoundException("Ресторан уже удален с id: " + id);
         }
 
+        // Блюда удаляются каскадно: подписчики сбрасывают все данные ресторана по его событию
         restaurant.softDelete();
-        restaurantRepository.save(restaurant);
+        restaurantRepository.saveAndFlush(restaurant);
+        menuOutboxService.restaurantChanged(restaurant, MenuChangeEvent.ChangeType.DELETED);
         log.info("Удален ресторан с id: {}", id);
     }
 
@@ -139,7 +145,8 @@ public class RestaurantService {
         }
 
         restaurant.restore();
-        restaurantRepository.save(restaurant);
+        restaurantRepository.saveAndFlush(restaurant);
+        menuOutboxService.restaurantChanged(restaurant, MenuChangeEvent.ChangeType.RESTORED);
         log.info("Восстановлен ресторан с id: {}", id);
     }
 
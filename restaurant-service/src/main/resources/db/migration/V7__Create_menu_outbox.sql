@@ -0,0 +1,19 @@
+-- Версия строки (optimistic lock) — передается в событиях меню
+ALTER TABLE restaurant ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE dish ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Outbox событий меню: запись в одной транзакции с изменением, публикация — MenuOutboxRelay
+CREATE TABLE menu_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    entity_type VARCHAR(20) NOT NULL,
+    entity_id BIGINT NOT NULL,
+    restaurant_id BIGINT,
+    version BIGINT NOT NULL,
+    change_type VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at TIMESTAMP
+);
+
+-- Relay читает только неопубликованные — частичный индекс остается маленьким
+CREATE INDEX idx_menu_outbox_unpublished ON menu_outbox(id) WHERE published_at IS NULL;
+CREATE INDEX idx_menu_outbox_published_at ON menu_outbox(published_at) WHERE published_at IS NOT NULL;
@@ -0,0 +1,18 @@
+-- Входящие заказы для экрана кухни (IncomingOrdersService): один вид на все экземпляры сервиса,
+-- собирается из событий order.created и order.status и переживает перезапуск
+CREATE TABLE incoming_order (
+    order_id BIGINT PRIMARY KEY,
+    restaurant_id BIGINT NOT NULL,
+    user_id BIGINT,
+    total_price INTEGER,
+    order_date TIMESTAMP,
+    items TEXT,
+    status VARCHAR(30) NOT NULL,
+    status_reason TEXT,
+    status_changed_at TIMESTAMP WITH TIME ZONE
+);
+
+CREATE INDEX idx_incoming_order_restaurant ON incoming_order(restaurant_id, order_date);
+-- Очистка завершенных заказов
+CREATE INDEX idx_incoming_order_finished ON incoming_order(status_changed_at)
+    WHERE status IN ('DELIVERED', 'CANCELLED');
@@ -0,0 +1,54 @@
+package com.example.userservice.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Configuration
+public class LoginExecutorConfig {
+
+    @Value("${security.login.threads:0}")
+    private int threads;
+
+    @Value("${security.login.queue-capacity:64}")
+    private int queueCapacity;
+
+    /**
+     * Отдельный ограниченный пул для BCrypt-проверок при входе.
+     * Переполнение очереди отклоняет задачу (AbortPolicy), что превращается в 429,
+     * и потоки Tomcat остаются свободны для остальных запросов.
+     */
+    @Bean(name = "loginExecutor", destroyMethod = "shutdown")
+    public ExecutorService loginExecutor(MeterRegistry meterRegistry) {
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        AtomicInteger counter = new AtomicInteger();
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "login-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+
+        log.info("Login executor started: {} threads, queue capacity {}", poolSize, queueCapacity);
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "login", List.of());
+    }
+}
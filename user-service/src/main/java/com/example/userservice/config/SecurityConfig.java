@@ -3,6 +3,7 @@ package com.example.userservice.config;
 import com.example.userservice.service.TokenBlacklistService;
 import com.example.userservice.service.UserDetailsServiceImpl;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -31,9 +32,13 @@ public class SecurityConfig {
     private final CustomLogoutHandler customLogoutHandler;
     private final UserDetailsServiceImpl userDetailsService;
 
+    // Стоимость BCrypt; при ее повышении старые хеши перехешируются при следующем входе
+    @Value("${security.password.bcrypt-strength:10}")
+    private int bcryptStrength;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        return new BCryptPasswordEncoder(bcryptStrength);
     }
 
     @Bean
@@ -41,6 +46,7 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder());
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
@@ -61,6 +67,8 @@ public class SecurityConfig {
                         .requestMatchers("/api/health/**").permitAll()
                         .requestMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
                         .requestMatchers("/actuator/health").permitAll()
+                        // Межсервисный API: проверка токена в InternalUserController
+                        .requestMatchers("/internal/**").permitAll()
 
                         // User endpoints - доступны аутентифицированным пользователям
                         .requestMatchers("/api/users/profile").authenticated()
@@ -1,6 +1,7 @@
 package com.example.userservice.controller;
 
 import com.example.userservice.dto.*;
+import com.example.userservice.exception.LoginOverloadException;
 import com.example.userservice.model.Role;
 import com.example.userservice.model.User;
 import com.example.userservice.service.AuthenticationService;
@@ -12,15 +13,19 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -31,12 +36,11 @@ public class AuthController {
     private final UserService userService;
     private final AuthenticationService authenticationService;
     private final JwtService jwtService;
-    private final PasswordEncoder passwordEncoder;
     private final TokenBlacklistService tokenBlacklistService;
 
     // Обработчик ошибок валидации
     @ExceptionHandler(MethodArgumentNotValidException.class)
-    @ResponseStatus(org.springframework.http.HttpStatus.BAD_REQUEST)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ResponseEntity<Map<String, String>> handleValidationExceptions(
             MethodArgumentNotValidException ex) {
 
@@ -133,63 +137,94 @@ public class AuthController {
         }
     }
 
+    // BCrypt-проверка выполняется в пуле loginExecutor, поток Tomcat освобождается сразу
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody SignInRequest request) {
-        try {
-            log.info("Login attempt for email: {}", request.getEmail());
-
-            // Простая валидация
-            if (request.getEmail() == null || request.getEmail().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body("Email is required");
-            }
+    public CompletableFuture<ResponseEntity<?>> login(@Valid @RequestBody SignInRequest request,
+                                                      HttpServletRequest httpRequest) {
+        log.info("Login attempt for email: {}", request.getEmail());
 
-            if (request.getPassword() == null || request.getPassword().trim().isEmpty()) {
-                return ResponseEntity.badRequest().body("Password is required");
-            }
+        // Простая валидация
+        if (request.getEmail() == null || request.getEmail().trim().isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Email is required"));
+        }
 
-            // Проверяем существование пользователя
-            User user = userService.findByEmail(request.getEmail());
+        if (request.getPassword() == null || request.getPassword().trim().isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().body("Password is required"));
+        }
 
-            // Проверяем пароль
-            if (!passwordEncoder.matches(request.getPassword(), user.getPasswordHash())) {
-                log.warn("Invalid password for email: {}", request.getEmail());
-                return ResponseEntity.badRequest().body("Invalid credentials");
-            }
+        return authenticationService.signInAsync(request, resolveClientIp(httpRequest))
+                .<ResponseEntity<?>>thenApply(jwtResponse -> {
+                    // Простой успешный ответ
+                    Map<String, Object> response = new HashMap<>();
+                    response.put("success", true);
+                    response.put("message", "Login successful");
+                    response.put("userId", jwtResponse.getUserId());
+                    response.put("email", jwtResponse.getEmail());
+                    response.put("fullName", jwtResponse.getFullName());
+                    response.put("accessToken", jwtResponse.getAccessToken());
+
+                    if (jwtResponse.getRefreshToken() != null) {
+                        response.put("refreshToken", jwtResponse.getRefreshToken());
+                    }
+
+                    log.info("Login successful for email: {}", request.getEmail());
+                    return ResponseEntity.ok(response);
+                })
+                .exceptionally(ex -> loginFailure(request, ex));
+    }
 
-            // Используем новый AuthenticationService
-            JwtAuthenticationResponse jwtResponse = authenticationService.signIn(request);
+    private ResponseEntity<?> loginFailure(SignInRequest request, Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+
+        if (cause instanceof LoginOverloadException) {
+            log.warn("Login rejected for email {}: {}", request.getEmail(), cause.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of(
+                            "error", "Too many requests",
+                            "message", cause.getMessage()
+                    ));
+        }
 
-            // Простой успешный ответ
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-            response.put("message", "Login successful");
-            response.put("userId", user.getId());
-            response.put("email", user.getEmail());
-            response.put("fullName", user.getFullName());
-            response.put("accessToken", jwtResponse.getAccessToken());
+        if (cause instanceof AuthenticationException) {
+            log.warn("Invalid credentials for email: {}", request.getEmail());
+            return ResponseEntity.badRequest().body("Invalid credentials");
+        }
 
-            if (jwtResponse.getRefreshToken() != null) {
-                response.put("refreshToken", jwtResponse.getRefreshToken());
-            }
+        log.error("Login failed for email: {}", request.getEmail(), cause);
 
-            log.info("Login successful for email: {}", request.getEmail());
-            return ResponseEntity.ok(response);
+        Map<String, String> errorResponse = new HashMap<>();
+        errorResponse.put("error", "Login failed");
+        errorResponse.put("message", cause.getMessage());
 
-        } catch (Exception e) {
-            log.error("Login failed for email: {}", request.getEmail(), e);
+        return ResponseEntity.badRequest().body(errorResponse);
+    }
 
-            // Проверяем, если это ошибка "пользователь не найден"
-            if (e.getMessage() != null &&
-                    (e.getMessage().contains("not found") ||
-                            e.getMessage().contains("User not found"))) {
-                return ResponseEntity.badRequest().body("User not found");
+    // Последний адрес X-Forwarded-For дописывает gateway (адрес, с которого пришло соединение);
+    // первые записи задает клиент, по ним лимит входа по IP обходится подменой заголовка
+    private String resolveClientIp(HttpServletRequest request) {
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (forwardedFor != null && !forwardedFor.isBlank()) {
+            String lastHop = forwardedFor.substring(forwardedFor.lastIndexOf(',') + 1).trim();
+            if (!lastHop.isEmpty()) {
+                return lastHop;
             }
+        }
+        return request.getRemoteAddr();
+    }
 
-            Map<String, String> errorResponse = new HashMap<>();
-            errorResponse.put("error", "Login failed");
-            errorResponse.put("message", e.getMessage());
-
-            return ResponseEntity.badRequest().body(errorResponse);
+    // Ротация refresh токена: старый отзывается, выдается новая пара токенов
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        try {
+            JwtAuthenticationResponse jwtResponse = authenticationService.refreshToken(request);
+            return ResponseEntity.ok(jwtResponse);
+        } catch (Exception e) {
+            log.warn("Refresh failed: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of(
+                    "error", "Refresh failed",
+                    "message", e.getMessage()
+            ));
         }
     }
 
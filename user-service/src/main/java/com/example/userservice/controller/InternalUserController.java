@@ -0,0 +1,63 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserBatchRequest;
+import com.example.userservice.dto.UserContactDto;
+import com.example.userservice.service.UserService;
+import jakarta.annotation.PostConstruct;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Межсервисный API. Gateway отвечает 404 на любой путь /internal/** (маршрут internal-blocked),
+ * доступ по общему токену из internal.api-token (INTERNAL_API_TOKEN).
+ */
+@Slf4j
+@RestController
+@RequestMapping("/internal/users")
+@RequiredArgsConstructor
+public class InternalUserController {
+    private final UserService userService;
+
+    @Value("${internal.api-token}")
+    private String internalApiToken;
+
+    @PostConstruct
+    void checkToken() {
+        if (internalApiToken.isBlank()) {
+            throw new IllegalStateException("internal.api-token is empty: set INTERNAL_API_TOKEN");
+        }
+    }
+
+    // Данные многих пользователей одним запросом вместо N вызовов /api/users/{id}
+    @PostMapping("/batch")
+    public ResponseEntity<?> getUsersBatch(
+            @RequestHeader(value = "X-Internal-Token", required = false) String token,
+            @Valid @RequestBody UserBatchRequest request) {
+
+        if (!isValidToken(token)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
+                    "error", "Access denied"
+            ));
+        }
+
+        List<UserContactDto> users = userService.findContactsByIds(request.getIds());
+        log.debug("Batch lookup: requested {}, found {}", request.getIds().size(), users.size());
+        return ResponseEntity.ok(Map.of("users", users));
+    }
+
+    private boolean isValidToken(String token) {
+        return token != null && MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8),
+                internalApiToken.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,14 +1,23 @@
 package com.example.userservice.controller;
 
+import com.example.userservice.dto.UserSummary;
 import com.example.userservice.model.User;
+import com.example.userservice.service.RoleRegistry;
 import com.example.userservice.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 
 @Slf4j
@@ -17,6 +26,7 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class UserController {
     private final UserService userService;
+    private final RoleRegistry roleRegistry;
 
     @GetMapping("/profile")
     public ResponseEntity<User> getUserProfile(@RequestHeader("X-User-Id") Long userId) {
@@ -129,20 +139,24 @@ public class UserController {
             ));
         }
 
-        User user = userService.findById(userId);
-        user.setPasswordHash(null);
+        UserSummary summary = userService.getUserSummary(userId);
 
         return ResponseEntity.ok(Map.of(
-                "userId", user.getId(),
-                "email", user.getEmail(),
-                "roles", user.getRoles()
+                "userId", summary.getId(),
+                "email", summary.getEmail(),
+                "roles", roleRegistry.resolve(summary.getRoles())
         ));
     }
 
-    // Получить всех пользователей - только для администраторов
+    // Получить пользователей постранично - только для администраторов
     @GetMapping
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<?> getAllUsers(@RequestHeader("X-User-Id") Long adminId) {
+    public ResponseEntity<?> getAllUsers(
+            @RequestHeader("X-User-Id") Long adminId,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String role) {
         try {
             // Проверка, что запрос от админа
             if (!userService.isAdmin(adminId)) {
@@ -153,11 +167,7 @@ public class UserController {
                 ));
             }
 
-            // Здесь должен быть метод для получения всех пользователей
-            // return ResponseEntity.ok(userService.getAllUsers());
-            return ResponseEntity.ok(Map.of(
-                    "message", "Get all users endpoint - to be implemented"
-            ));
+            return ResponseEntity.ok(userService.listUsers(afterId, size, email, role));
         } catch (Exception e) {
             log.error("Error getting all users: {}", e.getMessage());
             return ResponseEntity.badRequest().body(Map.of(
@@ -167,4 +177,34 @@ public class UserController {
             ));
         }
     }
-}
\ No newline at end of file
+
+    // Потоковая выгрузка пользователей в CSV - только для администраторов
+    @GetMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> exportUsers(
+            @RequestHeader("X-User-Id") Long adminId,
+            @RequestParam(required = false) String email,
+            @RequestParam(required = false) String role) {
+
+        if (!userService.isAdmin(adminId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
+                    "success", false,
+                    "error", "Access denied",
+                    "message", "Only administrators can export users"
+            ));
+        }
+
+        log.info("Admin (ID: {}) exporting users, email prefix: {}, role: {}", adminId, email, role);
+
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            userService.exportUsersCsv(writer, email, role);
+            writer.flush();
+        };
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\"")
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .body(body);
+    }
+}
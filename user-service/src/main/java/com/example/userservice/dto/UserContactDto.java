@@ -0,0 +1,17 @@
+package com.example.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserContactDto {
+    private Long id;
+    private String email;
+    private String fullName;
+    private String telephone;
+}
@@ -0,0 +1,12 @@
+package com.example.userservice.dto;
+
+// Компактная проекция для межсервисных запросов
+public interface UserContactView {
+    Long getId();
+
+    String getEmail();
+
+    String getFullName();
+
+    String getTelephone();
+}
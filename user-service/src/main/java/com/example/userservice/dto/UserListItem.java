@@ -0,0 +1,22 @@
+package com.example.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserListItem {
+    private Long id;
+    private String email;
+    private String fullName;
+    private String telephone;
+    private LocalDateTime createdAt;
+    private List<String> roles;
+}
@@ -0,0 +1,16 @@
+package com.example.userservice.dto;
+
+import java.time.LocalDateTime;
+
+// Проекция для списка пользователей: только нужные колонки, без загрузки сущности и ролей
+public interface UserListItemView {
+    Long getId();
+
+    String getEmail();
+
+    String getFullName();
+
+    String getTelephone();
+
+    LocalDateTime getCreatedAt();
+}
@@ -0,0 +1,19 @@
+package com.example.userservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserListPage {
+    private List<UserListItem> items;
+    // id последнего элемента страницы; передается как afterId для следующей страницы
+    private Long nextCursor;
+    private boolean hasMore;
+}
@@ -0,0 +1,7 @@
+package com.example.userservice.dto;
+
+public interface UserRoleView {
+    Long getUserId();
+
+    String getRoleName();
+}
@@ -0,0 +1,39 @@
+package com.example.userservice.dto;
+
+import com.example.userservice.model.Role;
+import com.example.userservice.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummary {
+    private Long id;
+    private String email;
+    private String fullName;
+    private Set<String> roles;
+    private Long version;
+
+    public static UserSummary from(User user) {
+        return UserSummary.builder()
+                .id(user.getId())
+                .email(user.getEmail())
+                .fullName(user.getFullName())
+                .roles(user.getRoles().stream()
+                        .map(Role::getName)
+                        .collect(Collectors.toUnmodifiableSet()))
+                .version(user.getVersion())
+                .build();
+    }
+
+    public boolean hasRole(String roleName) {
+        return roles != null && roles.contains(roleName);
+    }
+}
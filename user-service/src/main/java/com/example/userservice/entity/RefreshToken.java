@@ -18,7 +18,16 @@ public class RefreshToken {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false, unique = true)
+    // SHA-256 хеш токена (hex), сам токен не хранится
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    // Все токены, полученные ротацией от одного входа, имеют общий familyId
+    @Column(name = "family_id", nullable = false, length = 64)
+    private String familyId;
+
+    // Открытое значение токена, доступно только сразу после выдачи
+    @Transient
     private String token;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -28,6 +37,7 @@ public class RefreshToken {
     @Column(nullable = false)
     private LocalDateTime expiryDate;
 
+    @Builder.Default
     @Column(nullable = false)
     private Boolean revoked = false;
 
@@ -46,4 +56,4 @@ public class RefreshToken {
     public boolean isValid() {
         return !revoked && !isExpired();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,8 @@
+package com.example.userservice.exception;
+
+// Вход временно невозможен: перегружен пул проверки паролей или превышен лимит параллельных попыток
+public class LoginOverloadException extends RuntimeException {
+    public LoginOverloadException(String message) {
+        super(message);
+    }
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -15,11 +16,9 @@ import java.util.Optional;
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
 
-    @Query("SELECT rt FROM RefreshToken rt WHERE rt.token = :token")
-    Optional<RefreshToken> findByToken(@Param("token") String token);
-
-    @Query("SELECT rt FROM RefreshToken rt WHERE rt.token = :token AND rt.revoked = false")
-    Optional<RefreshToken> findByTokenAndRevokedFalse(@Param("token") String token);
+    // Поиск по уникальному индексу uk_refresh_tokens_token_hash (включая отозванные — нужно для обнаружения повторного использования)
+    @Query("SELECT rt FROM RefreshToken rt JOIN FETCH rt.user WHERE rt.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
 
     @Query("SELECT rt FROM RefreshToken rt WHERE rt.user = :user AND rt.revoked = false")
     List<RefreshToken> findByUserAndRevokedFalse(@Param("user") User user);
@@ -28,10 +27,20 @@ public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long
     @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.user = :user AND rt.revoked = false")
     void revokeAllUserTokens(@Param("user") User user);
 
+    // Условный отзыв: из параллельных ротаций одного токена строку меняет только одна (вернет 1)
+    @Modifying
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.id = :id AND rt.revoked = false")
+    int revokeIfActive(@Param("id") Long id);
+
     @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiryDate < :date")
-    void deleteExpiredTokens(@Param("date") LocalDateTime date);
+    @Query("UPDATE RefreshToken rt SET rt.revoked = true WHERE rt.familyId = :familyId AND rt.revoked = false")
+    int revokeFamily(@Param("familyId") String familyId);
 
-    @Query("SELECT CASE WHEN COUNT(rt) > 0 THEN true ELSE false END FROM RefreshToken rt WHERE rt.token = :token AND rt.revoked = false")
-    boolean existsByTokenAndRevokedFalse(@Param("token") String token);
-}
\ No newline at end of file
+    // Удаление пачкой по ctid: каждая пачка — отдельная короткая транзакция с ограниченным числом блокировок
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM refresh_tokens WHERE ctid = ANY (ARRAY(" +
+            "SELECT ctid FROM refresh_tokens WHERE expiry_date < :date LIMIT :batchSize))",
+            nativeQuery = true)
+    int deleteExpiredTokensBatch(@Param("date") LocalDateTime date, @Param("batchSize") int batchSize);
+}
@@ -1,11 +1,17 @@
 package com.example.userservice.repository;
 
+import com.example.userservice.dto.UserContactView;
+import com.example.userservice.dto.UserListItemView;
+import com.example.userservice.dto.UserRoleView;
 import com.example.userservice.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +22,45 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(@Param("email") String email);
 
     boolean existsByEmail(String email);
-}
\ No newline at end of file
+
+    // Keyset-пагинация по первичному ключу: стоимость не зависит от номера страницы
+    @Query(value = "SELECT u.id AS id, u.email AS email, u.full_name AS \"fullName\", " +
+            "u.telephone AS telephone, u.created_at AS \"createdAt\" " +
+            "FROM users u " +
+            "WHERE u.id > :afterId " +
+            "AND (CAST(:roleId AS BIGINT) IS NULL OR EXISTS (" +
+            "SELECT 1 FROM user_role ur WHERE ur.user_id = u.id AND ur.role_id = CAST(:roleId AS BIGINT))) " +
+            "ORDER BY u.id LIMIT :limit",
+            nativeQuery = true)
+    List<UserListItemView> findPageAfter(@Param("afterId") long afterId,
+                                         @Param("roleId") Long roleId,
+                                         @Param("limit") int limit);
+
+    // Префиксный поиск идет по idx_users_email_lower; emailPattern уже экранирован и заканчивается на %
+    @Query(value = "SELECT u.id AS id, u.email AS email, u.full_name AS \"fullName\", " +
+            "u.telephone AS telephone, u.created_at AS \"createdAt\" " +
+            "FROM users u " +
+            "WHERE lower(u.email) LIKE :emailPattern ESCAPE '\\' " +
+            "AND u.id > :afterId " +
+            "AND (CAST(:roleId AS BIGINT) IS NULL OR EXISTS (" +
+            "SELECT 1 FROM user_role ur WHERE ur.user_id = u.id AND ur.role_id = CAST(:roleId AS BIGINT))) " +
+            "ORDER BY u.id LIMIT :limit",
+            nativeQuery = true)
+    List<UserListItemView> findPageByEmailPrefixAfter(@Param("emailPattern") String emailPattern,
+                                                      @Param("afterId") long afterId,
+                                                      @Param("roleId") Long roleId,
+                                                      @Param("limit") int limit);
+
+    // Роли для всех пользователей страницы одним запросом
+    @Query("SELECT u.id AS userId, r.name AS roleName FROM User u JOIN u.roles r WHERE u.id IN :userIds")
+    List<UserRoleView> findRoleNamesByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT u.id AS id, u.email AS email, u.fullName AS fullName, u.telephone AS telephone " +
+            "FROM User u WHERE u.id IN :ids")
+    List<UserContactView> findContactsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Точечное обновление хеша: не трогает остальные поля и версию сущности
+    @Modifying
+    @Query("UPDATE User u SET u.passwordHash = :passwordHash WHERE u.id = :id")
+    int updatePasswordHash(@Param("id") Long id, @Param("passwordHash") String passwordHash);
+}
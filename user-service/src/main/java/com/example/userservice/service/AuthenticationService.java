@@ -4,54 +4,83 @@ import com.example.userservice.dto.JwtAuthenticationResponse;
 import com.example.userservice.dto.RefreshTokenRequest;
 import com.example.userservice.dto.SignInRequest;
 import com.example.userservice.entity.RefreshToken;
+import com.example.userservice.exception.LoginOverloadException;
 import com.example.userservice.model.User;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
 @Service
 @RequiredArgsConstructor
 public class AuthenticationService {
-    private final UserDetailsServiceImpl userDetailsService;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
     private final RefreshTokenService refreshTokenService;
+    private final LoginConcurrencyLimiter loginConcurrencyLimiter;
+    private final ExecutorService loginExecutor;
 
-    @Transactional
+    // Без @Transactional: соединение с БД не должно удерживаться на время BCrypt-проверки
     public JwtAuthenticationResponse signIn(SignInRequest request) {
-        authenticationManager.authenticate(
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getEmail(),
                         request.getPassword()
                 )
         );
 
-        var user = (User) userDetailsService.loadUserByUsername(request.getEmail());
+        // Principal уже содержит загруженного (и при необходимости перехешированного) пользователя
+        var user = (User) authentication.getPrincipal();
 
         return generateTokenResponse(user);
     }
 
-    @Transactional
-    public JwtAuthenticationResponse refreshToken(RefreshTokenRequest request) {
-        String refreshToken = request.getRefreshToken();
+    /**
+     * Вход через выделенный пул loginExecutor. При превышении лимита параллельных попыток
+     * (по IP или аккаунту) или переполнении очереди пула возвращает LoginOverloadException.
+     */
+    public CompletableFuture<JwtAuthenticationResponse> signInAsync(SignInRequest request, String clientIp) {
+        if (!loginConcurrencyLimiter.tryAcquire(clientIp, request.getEmail())) {
+            return CompletableFuture.failedFuture(
+                    new LoginOverloadException("Too many concurrent login attempts"));
+        }
 
-        if (!jwtService.isTokenValid(refreshToken)) {
-            throw new RuntimeException("Invalid refresh token");
+        try {
+            return CompletableFuture.supplyAsync(() -> signIn(request), loginExecutor)
+                    .whenComplete((response, ex) -> loginConcurrencyLimiter.release(clientIp, request.getEmail()));
+        } catch (RejectedExecutionException e) {
+            loginConcurrencyLimiter.release(clientIp, request.getEmail());
+            return CompletableFuture.failedFuture(new LoginOverloadException("Login service is busy"));
         }
+    }
 
-        RefreshToken storedToken = refreshTokenService.findByToken(refreshToken)
+    @Transactional
+    public JwtAuthenticationResponse refreshToken(RefreshTokenRequest request) {
+        RefreshToken storedToken = refreshTokenService.findByToken(request.getRefreshToken())
                 .orElseThrow(() -> new RuntimeException("Refresh token not found"));
 
-        if (storedToken.isExpired() || storedToken.getRevoked()) {
-            throw new RuntimeException("Refresh token expired or revoked");
+        // Повторное предъявление уже отозванного токена: цепочка скомпрометирована, отзываем ее целиком
+        if (storedToken.getRevoked()) {
+            refreshTokenService.revokeFamily(storedToken.getFamilyId());
+            throw new RuntimeException("Refresh token reuse detected");
         }
 
-        refreshTokenService.revokeToken(storedToken);
+        if (storedToken.isExpired()) {
+            throw new RuntimeException("Refresh token expired");
+        }
 
-        User user = storedToken.getUser();
-        return generateTokenResponse(user);
+        // Токен успели отозвать между чтением и ротацией (параллельное обновление) — тоже повторное использование
+        RefreshToken rotated = refreshTokenService.rotate(storedToken).orElseThrow(() -> {
+            refreshTokenService.revokeFamily(storedToken.getFamilyId());
+            return new RuntimeException("Refresh token reuse detected");
+        });
+        return buildTokenResponse(storedToken.getUser(), rotated);
     }
 
     @Transactional
@@ -63,8 +92,11 @@ public class AuthenticationService {
     }
 
     private JwtAuthenticationResponse generateTokenResponse(User user) {
+        return buildTokenResponse(user, refreshTokenService.createRefreshToken(user));
+    }
+
+    private JwtAuthenticationResponse buildTokenResponse(User user, RefreshToken refreshTokenEntity) {
         var accessToken = jwtService.generateAccessToken(user);
-        var refreshTokenEntity = refreshTokenService.createRefreshToken(user);
 
         return JwtAuthenticationResponse.builder()
                 .accessToken(accessToken)
@@ -0,0 +1,66 @@
+package com.example.userservice.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ограничивает число одновременных попыток входа с одного IP и на один аккаунт.
+ * Счетчики удаляются, когда доходят до нуля, поэтому карта не растет без ограничений.
+ */
+@Component
+public class LoginConcurrencyLimiter {
+
+    private final ConcurrentHashMap<String, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${security.login.max-concurrent-per-ip:4}")
+    private int maxPerIp;
+
+    @Value("${security.login.max-concurrent-per-account:2}")
+    private int maxPerAccount;
+
+    public boolean tryAcquire(String clientIp, String email) {
+        String ipKey = ipKey(clientIp);
+        if (!tryIncrement(ipKey, maxPerIp)) {
+            return false;
+        }
+        if (!tryIncrement(accountKey(email), maxPerAccount)) {
+            decrement(ipKey);
+            return false;
+        }
+        return true;
+    }
+
+    public void release(String clientIp, String email) {
+        decrement(accountKey(email));
+        decrement(ipKey(clientIp));
+    }
+
+    private boolean tryIncrement(String key, int limit) {
+        int[] count = new int[1];
+        inFlight.compute(key, (k, current) -> {
+            AtomicInteger value = current != null ? current : new AtomicInteger();
+            count[0] = value.incrementAndGet();
+            return value;
+        });
+        if (count[0] > limit) {
+            decrement(key);
+            return false;
+        }
+        return true;
+    }
+
+    private void decrement(String key) {
+        inFlight.computeIfPresent(key, (k, current) -> current.decrementAndGet() <= 0 ? null : current);
+    }
+
+    private String ipKey(String clientIp) {
+        return "ip:" + (clientIp != null ? clientIp : "unknown");
+    }
+
+    private String accountKey(String email) {
+        return "account:" + (email != null ? email.trim().toLowerCase() : "");
+    }
+}
@@ -5,46 +5,85 @@ import com.example.userservice.entity.RefreshToken;
 import com.example.userservice.model.User;
 import com.example.userservice.repository.RefreshTokenRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
 import java.util.Optional;
 import java.util.UUID;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class RefreshTokenService {
+    private static final int TOKEN_BYTES = 32;
+
     private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
 
     @Value("${jwt.expiration.refresh:2592000}")
     private Long refreshTokenDuration;
 
+    @Value("${jwt.refresh-cleanup.batch-size:1000}")
+    private int cleanupBatchSize;
+
+    @Value("${jwt.refresh-cleanup.max-batches:500}")
+    private int cleanupMaxBatches;
+
+    /**
+     * Создает токен новой сессии (новое семейство ротации).
+     * Другие сессии пользователя (другие устройства) не затрагиваются.
+     */
     @Transactional
     public RefreshToken createRefreshToken(User user) {
-        revokeAllUserTokens(user);
-
-        String token = UUID.randomUUID().toString();
-        RefreshToken refreshToken = RefreshToken.builder()
-                .user(user)
-                .token(token)
-                .expiryDate(LocalDateTime.now().plusSeconds(refreshTokenDuration))
-                .revoked(false)
-                .build();
+        return issueToken(user, UUID.randomUUID().toString());
+    }
 
-        return refreshTokenRepository.save(refreshToken);
+    /**
+     * Ротация: отзывает предъявленный токен и выдает следующий в том же семействе.
+     * Отзыв — условный UPDATE: если токен уже отозван параллельной ротацией, новый
+     * не выдается (пустой результат), чтобы семейство не разветвилось.
+     */
+    @Transactional
+    public Optional<RefreshToken> rotate(RefreshToken current) {
+        if (!revokeToken(current)) {
+            return Optional.empty();
+        }
+        return Optional.of(issueToken(current.getUser(), current.getFamilyId()));
     }
 
     public Optional<RefreshToken> findByToken(String token) {
-        return refreshTokenRepository.findByTokenAndRevokedFalse(token);
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        return refreshTokenRepository.findByTokenHash(hash(token));
     }
 
+    /**
+     * @return false — токен уже был отозван
+     */
     @Transactional
-    public void revokeToken(RefreshToken token) {
+    public boolean revokeToken(RefreshToken token) {
+        boolean revoked = refreshTokenRepository.revokeIfActive(token.getId()) > 0;
         token.setRevoked(true);
-        refreshTokenRepository.save(token);
+        return revoked;
+    }
+
+    // Отдельная транзакция: отзыв семейства должен сохраниться, даже если вызывающий откатывается
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void revokeFamily(String familyId) {
+        int revoked = refreshTokenRepository.revokeFamily(familyId);
+        log.warn("Revoked {} refresh tokens of family {}", revoked, familyId);
     }
 
     @Transactional
@@ -52,9 +91,50 @@ public class RefreshTokenService {
         refreshTokenRepository.revokeAllUserTokens(user);
     }
 
-    @Transactional
-    @Scheduled(cron = "0 0 2 * * ?")
+    // Без общей транзакции: каждая пачка коммитится отдельно, чтобы не держать блокировки
+    @Scheduled(cron = "${jwt.refresh-cleanup.cron:0 0 2 * * ?}")
     public void cleanupExpiredTokens() {
-        refreshTokenRepository.deleteExpiredTokens(LocalDateTime.now());
+        LocalDateTime now = LocalDateTime.now();
+        long total = 0;
+
+        for (int batch = 0; batch < cleanupMaxBatches; batch++) {
+            int deleted = refreshTokenRepository.deleteExpiredTokensBatch(now, cleanupBatchSize);
+            total += deleted;
+            if (deleted < cleanupBatchSize) {
+                break;
+            }
+        }
+
+        log.info("Expired refresh tokens cleanup finished, deleted: {}", total);
+    }
+
+    private RefreshToken issueToken(User user, String familyId) {
+        String token = generateToken();
+        RefreshToken refreshToken = RefreshToken.builder()
+                .user(user)
+                .tokenHash(hash(token))
+                .familyId(familyId)
+                .expiryDate(LocalDateTime.now().plusSeconds(refreshTokenDuration))
+                .revoked(false)
+                .build();
+
+        RefreshToken saved = refreshTokenRepository.save(refreshToken);
+        saved.setToken(token);
+        return saved;
+    }
+
+    private String generateToken() {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,78 @@
+package com.example.userservice.service;
+
+import com.example.userservice.model.Role;
+import com.example.userservice.repository.RoleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Справочник ролей в памяти. Ролей единицы и меняются они редко,
+ * поэтому поиск по имени не ходит в БД.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoleRegistry {
+    private final RoleRepository roleRepository;
+    private final Map<String, Role> rolesByName = new ConcurrentHashMap<>();
+
+    // После CommandLineRunner'ов (AdminInitializer создает роли)
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        refresh();
+    }
+
+    // Подхватывает роли, добавленные миграциями или другими экземплярами сервиса
+    @Scheduled(fixedDelayString = "${roles.registry.refresh-interval-ms:300000}",
+            initialDelayString = "${roles.registry.refresh-interval-ms:300000}")
+    public void refresh() {
+        Map<String, Role> loaded = roleRepository.findAll().stream()
+                .collect(Collectors.toMap(Role::getName, role -> role));
+        rolesByName.putAll(loaded);
+        rolesByName.keySet().retainAll(loaded.keySet());
+        log.debug("Role registry refreshed: {}", loaded.keySet());
+    }
+
+    public Optional<Role> findByName(String name) {
+        if (name == null) {
+            return Optional.empty();
+        }
+        Role role = rolesByName.get(name);
+        if (role != null) {
+            return Optional.of(role);
+        }
+        // Промах — роль могла появиться после последнего обновления
+        Optional<Role> loaded = roleRepository.findByName(name);
+        loaded.ifPresent(r -> rolesByName.put(r.getName(), r));
+        return loaded;
+    }
+
+    public Role getOrCreate(String name) {
+        return findByName(name).orElseGet(() -> {
+            log.warn("{} role not found, creating it...", name);
+            Role newRole = new Role();
+            newRole.setName(name);
+            Role saved = roleRepository.save(newRole);
+            rolesByName.put(saved.getName(), saved);
+            return saved;
+        });
+    }
+
+    public Set<Role> resolve(Collection<String> names) {
+        return names.stream()
+                .map(rolesByName::get)
+                .filter(role -> role != null)
+                .collect(Collectors.toSet());
+    }
+}
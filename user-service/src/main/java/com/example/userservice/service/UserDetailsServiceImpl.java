@@ -1,15 +1,20 @@
 package com.example.userservice.service;
 
+import com.example.userservice.model.User;
 import com.example.userservice.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+@Slf4j
 @Service
 @RequiredArgsConstructor
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -18,4 +23,17 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         return userRepository.findByEmail(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with email: " + username));
     }
-}
\ No newline at end of file
+
+    // Вызывается DaoAuthenticationProvider после успешного входа, если хеш создан с устаревшей стоимостью
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPasswordHash) {
+        // userDetails отсоединен от сессии (загружен при входе): save с @Version мог бы
+        // упасть на параллельном изменении пользователя, поэтому обновляется только хеш
+        User user = (User) userDetails;
+        userRepository.updatePasswordHash(user.getId(), newPasswordHash);
+        user.setPasswordHash(newPasswordHash);
+        log.info("Password hash upgraded for user ID: {}", user.getId());
+        return user;
+    }
+}
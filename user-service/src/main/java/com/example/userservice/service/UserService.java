@@ -1,9 +1,14 @@
 package com.example.userservice.service;
 
+import com.example.userservice.dto.UserContactDto;
+import com.example.userservice.dto.UserListItem;
+import com.example.userservice.dto.UserListItemView;
+import com.example.userservice.dto.UserListPage;
 import com.example.userservice.dto.UserRegistrationRequest;
+import com.example.userservice.dto.UserRoleView;
+import com.example.userservice.dto.UserSummary;
 import com.example.userservice.model.Role;
 import com.example.userservice.model.User;
-import com.example.userservice.repository.RoleRepository;
 import com.example.userservice.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,15 +16,27 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class UserService {
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int EXPORT_BATCH_SIZE = 1000;
+
     private final UserRepository userRepository;
-    private final RoleRepository roleRepository;
+    private final RoleRegistry roleRegistry;
+    private final UserSummaryCache userSummaryCache;
     private final PasswordEncoder passwordEncoder;
 
     @Transactional
@@ -39,13 +56,7 @@ public class UserService {
 
         // ВАЖНО: Все новые пользователи получают ТОЛЬКО роль USER
         // Роли ADMIN и MANAGER могут быть назначены только администратором
-        Role userRole = roleRepository.findByName("USER")
-                .orElseGet(() -> {
-                    log.warn("USER role not found, creating it...");
-                    Role newRole = new Role();
-                    newRole.setName("USER");
-                    return roleRepository.save(newRole);
-                });
+        Role userRole = roleRegistry.getOrCreate("USER");
 
         // Убедимся, что только роль USER назначена
         user.setRoles(Collections.singleton(userRole));
@@ -64,7 +75,7 @@ public class UserService {
         String normalizedRoleName = roleName.toUpperCase();
 
         // Проверяем, существует ли такая роль
-        Role role = roleRepository.findByName(normalizedRoleName)
+        Role role = roleRegistry.findByName(normalizedRoleName)
                 .orElseThrow(() -> new RuntimeException("Role not found: " + normalizedRoleName));
 
         // Проверяем, не пытаемся ли назначить роль USER через этот метод
@@ -81,7 +92,9 @@ public class UserService {
             log.info("User '{}' already has role '{}'", user.getEmail(), roleName);
         }
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userSummaryCache.invalidateAfterCommit(userId);
+        return savedUser;
     }
 
     // Метод для удаления роли (кроме USER)
@@ -96,7 +109,7 @@ public class UserService {
             throw new RuntimeException("Cannot remove USER role. Every user must have at least USER role.");
         }
 
-        Role role = roleRepository.findByName(normalizedRoleName)
+        Role role = roleRegistry.findByName(normalizedRoleName)
                 .orElseThrow(() -> new RuntimeException("Role not found: " + normalizedRoleName));
 
         if (user.getRoles().contains(role)) {
@@ -107,7 +120,9 @@ public class UserService {
             log.info("User '{}' doesn't have role '{}'", user.getEmail(), roleName);
         }
 
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userSummaryCache.invalidateAfterCommit(userId);
+        return savedUser;
     }
 
     public User findByEmail(String email) {
@@ -130,24 +145,130 @@ public class UserService {
                 });
     }
 
+    // Сводка пользователя из кэша; полная сущность загружается только при промахе
+    public UserSummary getUserSummary(Long userId) {
+        return userSummaryCache.get(userId, id -> UserSummary.from(findById(id)));
+    }
+
     // Метод для проверки, является ли пользователь администратором
     public boolean isAdmin(Long userId) {
-        User user = findById(userId);
-        return user.getRoles().stream()
-                .anyMatch(role -> "ADMIN".equals(role.getName()));
+        return getUserSummary(userId).hasRole("ADMIN");
     }
 
     // Метод для проверки, является ли пользователь менеджером
     public boolean isManager(Long userId) {
-        User user = findById(userId);
-        return user.getRoles().stream()
-                .anyMatch(role -> "MANAGER".equals(role.getName()));
+        return getUserSummary(userId).hasRole("MANAGER");
+    }
+
+    // Контакты пользователей одним запросом по первичному ключу (для других сервисов)
+    @Transactional(readOnly = true)
+    public List<UserContactDto> findContactsByIds(Collection<Long> ids) {
+        Set<Long> distinctIds = ids.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (distinctIds.isEmpty()) {
+            return List.of();
+        }
+        return userRepository.findContactsByIdIn(distinctIds).stream()
+                .map(view -> UserContactDto.builder()
+                        .id(view.getId())
+                        .email(view.getEmail())
+                        .fullName(view.getFullName())
+                        .telephone(view.getTelephone())
+                        .build())
+                .toList();
     }
 
-    // Метод для получения всех пользователей (только для администратора)
+    // Страница пользователей для администратора (keyset по id, проекция вместо сущностей)
     @Transactional(readOnly = true)
-    public List<User> getAllUsers() {
-        log.info("Getting all users (admin only)");
-        return userRepository.findAll();
+    public UserListPage listUsers(Long afterId, int size, String emailPrefix, String roleName) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<UserListItem> rows = fetchPage(afterId != null ? afterId : 0L, pageSize + 1, emailPrefix, roleName);
+
+        boolean hasMore = rows.size() > pageSize;
+        List<UserListItem> items = hasMore ? rows.subList(0, pageSize) : rows;
+        Long nextCursor = hasMore ? items.get(items.size() - 1).getId() : null;
+
+        return UserListPage.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .build();
+    }
+
+    // Экспорт в CSV пачками: каждая пачка — отдельный короткий запрос, память не зависит от числа пользователей
+    public void exportUsersCsv(Writer writer, String emailPrefix, String roleName) throws IOException {
+        writer.write("id,email,full_name,telephone,created_at,roles\n");
+        long afterId = 0L;
+        while (true) {
+            List<UserListItem> batch = fetchPage(afterId, EXPORT_BATCH_SIZE, emailPrefix, roleName);
+            for (UserListItem item : batch) {
+                writer.write(item.getId() + "," +
+                        csv(item.getEmail()) + "," +
+                        csv(item.getFullName()) + "," +
+                        csv(item.getTelephone()) + "," +
+                        (item.getCreatedAt() != null ? item.getCreatedAt() : "") + "," +
+                        csv(String.join(";", item.getRoles())) + "\n");
+            }
+            writer.flush();
+            if (batch.size() < EXPORT_BATCH_SIZE) {
+                return;
+            }
+            afterId = batch.get(batch.size() - 1).getId();
+        }
+    }
+
+    private List<UserListItem> fetchPage(long afterId, int limit, String emailPrefix, String roleName) {
+        Long roleId = null;
+        if (roleName != null && !roleName.isBlank()) {
+            Optional<Role> role = roleRegistry.findByName(roleName.trim().toUpperCase());
+            if (role.isEmpty()) {
+                return List.of();
+            }
+            roleId = role.get().getId();
+        }
+
+        List<UserListItemView> views = emailPrefix != null && !emailPrefix.isBlank()
+                ? userRepository.findPageByEmailPrefixAfter(likePrefix(emailPrefix), afterId, roleId, limit)
+                : userRepository.findPageAfter(afterId, roleId, limit);
+        if (views.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<String>> rolesByUser = userRepository.findRoleNamesByUserIds(
+                        views.stream().map(UserListItemView::getId).toList())
+                .stream()
+                .collect(Collectors.groupingBy(UserRoleView::getUserId,
+                        Collectors.mapping(UserRoleView::getRoleName, Collectors.toList())));
+
+        return views.stream()
+                .map(view -> UserListItem.builder()
+                        .id(view.getId())
+                        .email(view.getEmail())
+                        .fullName(view.getFullName())
+                        .telephone(view.getTelephone())
+                        .createdAt(view.getCreatedAt())
+                        .roles(rolesByUser.getOrDefault(view.getId(), List.of()))
+                        .build())
+                .toList();
+    }
+
+    // Экранируем спецсимволы LIKE, чтобы префикс искался буквально
+    private String likePrefix(String prefix) {
+        String escaped = prefix.trim().toLowerCase()
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return escaped + "%";
+    }
+
+    private String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.UserSummary;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Ограниченный LRU-кэш сводок пользователей (id → email, имя, роли, версия).
+ * Метрики публикуются в формате Micrometer: cache.gets{result=hit|miss}, cache.evictions, cache.size.
+ */
+@Slf4j
+@Component
+public class UserSummaryCache {
+    private static final String CACHE_NAME = "userSummary";
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Map<Long, Entry> entries;
+    // Загрузки в полете; invalidate удаляет загрузку, и ее результат уже не попадет в кэш
+    private final Map<Long, CompletableFuture<UserSummary>> loading = new HashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public UserSummaryCache(MeterRegistry meterRegistry,
+                            @Value("${cache.user-summary.max-size:10000}") int maxSize,
+                            @Value("${cache.user-summary.ttl-seconds:300}") long ttlSeconds) {
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > UserSummaryCache.this.maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        this.hits = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets").tag("cache", CACHE_NAME).tag("result", "miss")
+                .register(meterRegistry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, UserSummaryCache::size).tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Возвращает сводку из кэша или загружает ее через loader.
+     * Загрузка идет без блокировки кэша, параллельные запросы того же id ждут ее результата.
+     * Загрузка, во время которой был вызван invalidate, в кэш не попадает: она могла прочитать
+     * состояние до изменения (например, еще не отозванную роль). Более старая версия
+     * не перетирает более новую.
+     */
+    public UserSummary get(Long userId, Function<Long, UserSummary> loader) {
+        long now = System.currentTimeMillis();
+        CompletableFuture<UserSummary> load;
+        boolean owner = false;
+        synchronized (entries) {
+            Entry entry = entries.get(userId);
+            if (entry != null && entry.expiresAt > now) {
+                hits.increment();
+                return entry.summary;
+            }
+            load = loading.get(userId);
+            if (load == null) {
+                load = new CompletableFuture<>();
+                loading.put(userId, load);
+                owner = true;
+            }
+        }
+
+        misses.increment();
+        if (!owner) {
+            return await(load);
+        }
+
+        UserSummary loaded;
+        try {
+            loaded = loader.apply(userId);
+        } catch (RuntimeException | Error e) {
+            synchronized (entries) {
+                loading.remove(userId, load);
+            }
+            load.completeExceptionally(e);
+            throw e;
+        }
+
+        synchronized (entries) {
+            // Загрузки уже нет в loading — был invalidate, результат только для этого вызова
+            if (loading.remove(userId, load)) {
+                Entry existing = entries.get(userId);
+                if (existing == null || isNewer(loaded, existing.summary)) {
+                    entries.put(userId, new Entry(loaded, now + ttlMillis));
+                }
+            }
+        }
+        load.complete(loaded);
+        return loaded;
+    }
+
+    public void invalidate(Long userId) {
+        synchronized (entries) {
+            entries.remove(userId);
+            loading.remove(userId);
+        }
+    }
+
+    // Сброс после коммита, иначе параллельное чтение успеет закэшировать незакоммиченное состояние
+    public void invalidateAfterCommit(Long userId) {
+        invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(userId);
+                }
+            });
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private UserSummary await(CompletableFuture<UserSummary> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private boolean isNewer(UserSummary candidate, UserSummary current) {
+        if (candidate.getVersion() == null || current.getVersion() == null) {
+            return true;
+        }
+        return candidate.getVersion() >= current.getVersion();
+    }
+
+    private record Entry(UserSummary summary, long expiresAt) {
+    }
+}
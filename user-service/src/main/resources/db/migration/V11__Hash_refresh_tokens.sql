@@ -0,0 +1,21 @@
+-- V11__Hash_refresh_tokens.sql
+-- Храним только SHA-256 хеш refresh токена, сами токены в БД больше не попадают
+ALTER TABLE refresh_tokens
+    ADD COLUMN IF NOT EXISTS token_hash VARCHAR(64),
+    ADD COLUMN IF NOT EXISTS family_id VARCHAR(64);
+
+UPDATE refresh_tokens
+SET token_hash = encode(sha256(convert_to(token, 'UTF8')), 'hex'),
+    family_id  = 'legacy-' || id
+WHERE token_hash IS NULL;
+
+ALTER TABLE refresh_tokens
+    ALTER COLUMN token_hash SET NOT NULL,
+    ALTER COLUMN family_id SET NOT NULL;
+
+DROP INDEX IF EXISTS idx_refresh_tokens_token;
+ALTER TABLE refresh_tokens DROP COLUMN IF EXISTS token;
+
+-- Уникальный индекс для поиска по хешу и индекс для отзыва всей цепочки ротации
+CREATE UNIQUE INDEX IF NOT EXISTS uk_refresh_tokens_token_hash ON refresh_tokens(token_hash);
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_family_id ON refresh_tokens(family_id);
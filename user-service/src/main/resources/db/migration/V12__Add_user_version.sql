@@ -0,0 +1,2 @@
+-- Версия строки пользователя: увеличивается при любом изменении, в т.ч. набора ролей
+ALTER TABLE users ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
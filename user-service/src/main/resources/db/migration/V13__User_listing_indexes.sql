@@ -0,0 +1,6 @@
+-- Поиск по префиксу email без учета регистра: lower(email) LIKE 'prefix%'
+-- text_pattern_ops позволяет использовать индекс для LIKE независимо от collation БД
+CREATE INDEX IF NOT EXISTS idx_users_email_lower ON users (lower(email) text_pattern_ops);
+
+-- Фильтр по роли с keyset-пагинацией по user_id
+CREATE INDEX IF NOT EXISTS idx_user_role_role_id_user_id ON user_role (role_id, user_id);